@@ -23,7 +23,7 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(request -> request.requestMatchers("/swagger-ui/**", "/docs/**",
-                                                               "/swagger-ui.html")
+                                                               "/swagger-ui.html", "/actuator/health")
                                                        .permitAll()
                                                        .anyRequest()
                                                        .authenticated())
@@ -1,5 +1,6 @@
 package com.bogdan.order.integration.gateways.gatewaysshop;
 
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -9,19 +10,15 @@ import org.springframework.web.client.RestClient;
 @Slf4j
 public class OrderGateway {
 
-    @Value("${shop-service.url}")
-    private String shopServiceURI;
-
     private final RestClient restClient;
 
-    public OrderGateway(RestClient.Builder builder) {
-        this.restClient = builder.baseUrl(shopServiceURI)
-                                 .build();
+    public OrderGateway(GatewayClientFactory clientFactory, @Value("${shop-service.url}") String shopServiceURI) {
+        this.restClient = clientFactory.create("shop-service", shopServiceURI);
     }
 
     public void setOrderToFinished(Long orderId) {
         restClient.patch()
-                  .uri(shopServiceURI + "/api/orders/finish/{id}", orderId)
+                  .uri("/api/orders/finish/{id}", orderId)
                   .retrieve()
                   .toBodilessEntity();
     }
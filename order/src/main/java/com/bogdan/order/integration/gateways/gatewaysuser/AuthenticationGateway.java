@@ -1,37 +1,175 @@
 package com.bogdan.order.integration.gateways.gatewaysuser;
 
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
+import com.bogdan.order.integration.gateways.model.BatchValidationRequest;
+import com.bogdan.order.integration.gateways.model.RevocationDelta;
+import com.bogdan.order.integration.gateways.model.TokenValidationResult;
 import com.bogdan.order.integration.gateways.model.ValidationResponse;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 @Component
+@Slf4j
 public class AuthenticationGateway {
 
-    @Value("${user-service.url}")
-    private String userServiceURL;
+    private static final String ROLE_CLAIM = "role";
+
+    private static final String SESSION_ID_CLAIM = "sid";
+
+    @Value("${user-service.validation.local:true}")
+    private boolean localValidation;
+
+    @Value("${user-service.validation.remote-fallback:true}")
+    private boolean remoteFallback;
+
+    @Value("${user-service.validation.batch.enabled:true}")
+    private boolean batchValidation;
 
     private final RestClient restClient;
 
-    public AuthenticationGateway(RestClient.Builder builder) {
-        this.restClient = builder.baseUrl(userServiceURL)
-                                 .build();
+    private final JwtParser jwtParser;
+
+    private final TokenValidationCache validationCache;
+
+    private final TokenValidationBatcher validationBatcher;
+
+    private final UserServiceResilience resilience;
+
+    private final TokenRevocationList revocationList;
+
+    public AuthenticationGateway(GatewayClientFactory clientFactory, TokenValidationCache validationCache,
+                                 UserServiceResilience resilience, TokenRevocationList revocationList,
+                                 @Value("${user-service.url}") String userServiceURL,
+                                 @Value("${user-service.validation.batch.window:5ms}") Duration batchWindow,
+                                 @Value("${user-service.validation.batch.max-size:50}") int maxBatchSize) {
+        this.validationCache = validationCache;
+        this.resilience = resilience;
+        this.revocationList = revocationList;
+        this.validationBatcher = new TokenValidationBatcher(this::validateTokens, batchWindow, maxBatchSize);
+        this.restClient = clientFactory.create("user-service", userServiceURL);
+        this.jwtParser = Jwts.parser()
+                             .keyLocator(new VerificationKeyLocator(this::getVerificationKeys))
+                             .build();
     }
 
     public Optional<ValidationResponse> validateToken(String token) {
+        if (localValidation) {
+            try {
+                return verifyToken(token);
+            } catch (VerificationKeysUnavailableException e) {
+                if (!remoteFallback) {
+                    log.warn("Token could not be verified: {}", e.getMessage());
+                    return Optional.empty();
+                }
+                log.warn("Token could not be verified locally, falling back to the user service: {}",
+                        e.getMessage());
+            }
+        }
+        Optional<ValidationResponse> validation;
         try {
-            return restClient.get()
-                             .uri(userServiceURL + "/api/authentications/validate")
-                             .headers(headers -> headers.add("Authorization", "Bearer " + token))
-                             .retrieve()
-                             .body(new ParameterizedTypeReference<>() {
-                             });
-        } catch (HttpClientErrorException.Unauthorized e) {
+            validation = batchValidation ? validationCache.get(token, validationBatcher::validate) :
+                    validationCache.get(token, this::validateTokenRemotely);
+        } catch (CallNotPermittedException | BulkheadFullException | ResourceAccessException |
+                 HttpServerErrorException e) {
+            log.warn("User service is unavailable, answering from previously validated tokens: {}",
+                    e.getMessage());
+            validation = validationCache.getLastKnownGood(token);
+        }
+        // cached answers may predate the revocation of the token
+        if (validation.isPresent() && (revocationList.isRevoked(TokenPayload.getId(token)) ||
+                revocationList.isRevoked(TokenPayload.getSessionId(token)))) {
             return Optional.empty();
         }
+        return validation;
+    }
+
+    public List<Optional<ValidationResponse>> validateTokens(List<String> tokens) {
+        List<TokenValidationResult> results = resilience.execute(() -> requestValidations(tokens));
+        if (results == null) {
+            throw new IllegalStateException("User service returned no validation results");
+        }
+        return results.stream()
+                      .map(result -> Optional.ofNullable(result.validation()))
+                      .toList();
+    }
+
+    public String getVerificationKeys() {
+        return restClient.get()
+                         .uri("/api/authentications/jwks")
+                         .retrieve()
+                         .body(String.class);
+    }
+
+    public RevocationDelta getRevocations(long after, int limit) {
+        RevocationDelta delta = resilience.execute(() -> requestRevocations(after, limit));
+        if (delta == null) {
+            throw new IllegalStateException("User service returned no revocations");
+        }
+        return delta;
+    }
+
+    private Optional<ValidationResponse> verifyToken(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token)
+                                     .getPayload();
+            String role = claims.get(ROLE_CLAIM, String.class);
+            // the user service revokes all the tokens of a user through their session id
+            if (claims.getSubject() == null || role == null || revocationList.isRevoked(claims.getId()) ||
+                    revocationList.isRevoked(claims.get(SESSION_ID_CLAIM, String.class))) {
+                return Optional.empty();
+            }
+            return Optional.of(new ValidationResponse(role, claims.getSubject()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<ValidationResponse> validateTokenRemotely(String token) {
+        try {
+            return resilience.execute(() -> restClient.get()
+                                                      .uri("/api/authentications/validate")
+                                                      .headers(headers -> headers.add("Authorization",
+                                                              "Bearer " + token))
+                                                      .retrieve()
+                                                      .body(new ParameterizedTypeReference<>() {
+                                                      }));
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            // the user service answers an invalid token with 403, both are rejections that are cached
+            return Optional.empty();
+        }
+    }
+
+    private RevocationDelta requestRevocations(long after, int limit) {
+        return restClient.get()
+                         .uri("/api/authentications/revocations?after={after}&limit={limit}", after, limit)
+                         .retrieve()
+                         .body(RevocationDelta.class);
+    }
+
+    private List<TokenValidationResult> requestValidations(List<String> tokens) {
+        return restClient.post()
+                         .uri("/api/authentications/validate/batch")
+                         .contentType(MediaType.APPLICATION_JSON)
+                         .body(new BatchValidationRequest(tokens))
+                         .retrieve()
+                         .body(new ParameterizedTypeReference<>() {
+                         });
     }
 }
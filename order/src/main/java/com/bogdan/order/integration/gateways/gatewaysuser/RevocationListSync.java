@@ -0,0 +1,61 @@
+package com.bogdan.order.integration.gateways.gatewaysuser;
+
+import com.bogdan.order.integration.gateways.model.RevocationDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class RevocationListSync {
+
+    private final AuthenticationGateway authenticationGateway;
+
+    private final TokenRevocationList revocationList;
+
+    private final int pageSize;
+
+    private final long lookback;
+
+    public RevocationListSync(AuthenticationGateway authenticationGateway, TokenRevocationList revocationList,
+                              @Value("${user-service.revocations.page-size:500}") int pageSize,
+                              @Value("${user-service.revocations.lookback:100}") long lookback) {
+        this.authenticationGateway = authenticationGateway;
+        this.revocationList = revocationList;
+        this.pageSize = pageSize;
+        this.lookback = lookback;
+    }
+
+    /**
+     * Pulls the tokens revoked since the last pull, a page at a time. Also called right away on user events, hence
+     * synchronized with the scheduled pulls.
+     * <p>
+     * The cursor is an auto-increment id, and ids are handed out before their transactions commit, so a revocation
+     * can become visible after one with a higher id was already pulled. Each pull therefore starts a few ids behind
+     * the cursor and re-reads them, which is harmless since adding a revocation twice changes nothing. A revocation
+     * whose commit lags more than that many ids behind is still missed.
+     */
+    @Scheduled(fixedDelayString = "${user-service.revocations.pull-interval:10s}")
+    public synchronized void pullRevocations() {
+        try {
+            long after = Math.max(0, revocationList.getCursor() - lookback);
+            RevocationDelta delta;
+            do {
+                delta = authenticationGateway.getRevocations(after, pageSize);
+                revocationList.addAll(delta.revocations(), delta.cursor());
+                after = delta.cursor();
+            } while (delta.revocations()
+                          .size() == pageSize);
+        } catch (RuntimeException e) {
+            // the next pull resumes from the same cursor
+            log.warn("Could not pull token revocations from the user service: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.revocations.prune-interval:10m}",
+            initialDelayString = "${user-service.revocations.prune-interval:10m}")
+    public void pruneRevocations() {
+        revocationList.pruneExpired();
+    }
+}
@@ -0,0 +1,48 @@
+package com.bogdan.order.integration.gateways.gatewaysuser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Reads claims from the payload of a token without verifying its signature. Only meant for tokens that were already
+ * validated by the user service.
+ */
+final class TokenPayload {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TokenPayload() {
+    }
+
+    static Long getExpiration(String token) {
+        JsonNode expiration = getClaim(token, "exp");
+        return expiration != null && expiration.canConvertToLong() ? expiration.asLong() : null;
+    }
+
+    static String getId(String token) {
+        JsonNode id = getClaim(token, "jti");
+        return id != null && id.isTextual() ? id.asText() : null;
+    }
+
+    static String getSessionId(String token) {
+        JsonNode sessionId = getClaim(token, "sid");
+        return sessionId != null && sessionId.isTextual() ? sessionId.asText() : null;
+    }
+
+    private static JsonNode getClaim(String token, String claim) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(Base64.getUrlDecoder()
+                                         .decode(parts[1]))
+                         .get(claim);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
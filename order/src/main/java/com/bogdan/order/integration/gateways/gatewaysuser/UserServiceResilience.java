@@ -0,0 +1,126 @@
+package com.bogdan.order.integration.gateways.gatewaysuser;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls made to the user service with a circuit breaker and a bulkhead, so that a slow user service
+ * fails fast instead of tying up every request thread.
+ */
+@Slf4j
+@Component
+public class UserServiceResilience implements MeterBinder {
+
+    private static final String NAME = "user-service";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+
+    private final AtomicLong rejectedByCircuitBreaker = new AtomicLong();
+
+    private final Map<CircuitBreaker.State, AtomicLong> stateTransitions = new EnumMap<>(CircuitBreaker.State.class);
+
+    public UserServiceResilience(
+            @Value("${user-service.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${user-service.resilience.circuit-breaker.slow-call-duration:2s}") Duration slowCallDuration,
+            @Value("${user-service.resilience.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRate,
+            @Value("${user-service.resilience.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${user-service.resilience.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+            @Value("${user-service.resilience.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState,
+            @Value("${user-service.resilience.bulkhead.max-concurrent-calls:25}") int maxConcurrentCalls,
+            @Value("${user-service.resilience.bulkhead.max-wait:20ms}") Duration maxWait) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                                                                        .failureRateThreshold(failureRateThreshold)
+                                                                        .slowCallDurationThreshold(slowCallDuration)
+                                                                        .slowCallRateThreshold(slowCallRate)
+                                                                        .slidingWindowSize(slidingWindowSize)
+                                                                        .minimumNumberOfCalls(minimumNumberOfCalls)
+                                                                        .waitDurationInOpenState(waitInOpenState)
+                                                                        // a rejected token is a healthy answer
+                                                                        .ignoreExceptions(
+                                                                                HttpClientErrorException.class,
+                                                                                BulkheadFullException.class)
+                                                                        .build();
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                                                      .maxConcurrentCalls(maxConcurrentCalls)
+                                                      .maxWaitDuration(maxWait)
+                                                      .build();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        bulkheadRegistry = BulkheadRegistry.of(bulkheadConfig);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            stateTransitions.put(state, new AtomicLong());
+        }
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        bulkhead = bulkheadRegistry.bulkhead(NAME);
+        circuitBreaker.getEventPublisher()
+                      .onStateTransition(event -> {
+                          log.warn("User service circuit breaker changed state: {}", event.getStateTransition());
+                          stateTransitions.get(event.getStateTransition()
+                                                    .getToState())
+                                          .incrementAndGet();
+                      })
+                      .onCallNotPermitted(event -> rejectedByCircuitBreaker.incrementAndGet());
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> rejectedByBulkhead.incrementAndGet());
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        return circuitBreaker.executeSupplier(Bulkhead.decorateSupplier(bulkhead, call));
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry)
+                                   .bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry)
+                             .bindTo(registry);
+        FunctionCounter.builder("user-service.calls.rejected", rejectedByBulkhead, AtomicLong::get)
+                       .description("Calls to the user service rejected because the bulkhead was full")
+                       .tag("reason", "bulkhead_full")
+                       .register(registry);
+        FunctionCounter.builder("user-service.calls.rejected", rejectedByCircuitBreaker, AtomicLong::get)
+                       .description("Calls to the user service rejected because the circuit breaker was open")
+                       .tag("reason", "circuit_open")
+                       .register(registry);
+        for (Map.Entry<CircuitBreaker.State, AtomicLong> transitions : stateTransitions.entrySet()) {
+            FunctionCounter.builder("user-service.circuitbreaker.transitions", transitions.getValue(), AtomicLong::get)
+                           .description("State transitions of the user service circuit breaker")
+                           .tag("to", transitions.getKey()
+                                                 .name()
+                                                 .toLowerCase())
+                           .register(registry);
+        }
+    }
+}
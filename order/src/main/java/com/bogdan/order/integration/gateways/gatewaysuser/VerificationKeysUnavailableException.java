@@ -0,0 +1,7 @@
+package com.bogdan.order.integration.gateways.gatewaysuser;
+
+public class VerificationKeysUnavailableException extends RuntimeException {
+    public VerificationKeysUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,4 @@
+package com.bogdan.order.integration.messages.model;
+
+public record UserEvent(String username, String newUsername) {
+}
@@ -0,0 +1,74 @@
+package com.bogdan.order.gateway;
+
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class GatewayClientFactoryTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private GatewayClientFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new GatewayClientFactory(new RestClientBuilderConfigurer(),
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(factory, "maxConnectionsPerRoute", 10);
+        ReflectionTestUtils.setField(factory, "maxConnections", 20);
+        ReflectionTestUtils.setField(factory, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(factory, "readTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(factory, "keepAlive", Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+    }
+
+    @Test
+    void create_whenPooled_exportPoolMetricsPerGateway() {
+        //Act
+        factory.create("user-service", "http://localhost:8081");
+
+        //Assert
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.max")
+                           .tag("httpclient", "user-service")
+                           .gauge()
+                           .value()).isEqualTo(20);
+    }
+
+    @Test
+    void create_whenCallFails_recordLatencyForGateway() {
+        //Arrange
+        RestClient restClient = factory.create("user-service", "http://localhost:1");
+
+        //Act
+        assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> restClient.get()
+                                                                                           .uri("/api")
+                                                                                           .retrieve()
+                                                                                           .toBodilessEntity());
+
+        //Assert
+        assertThat(registry.get("gateway.requests")
+                           .tag("gateway", "user-service")
+                           .tag("status", "IO_ERROR")
+                           .timer()
+                           .count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bogdan.order.gateway.gatewayuser;
+
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
+import com.bogdan.order.integration.gateways.gatewaysuser.AuthenticationGateway;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.order.integration.gateways.gatewaysuser.UserServiceResilience;
+import com.bogdan.order.integration.gateways.model.BatchValidationRequest;
+import com.bogdan.order.integration.gateways.model.TokenValidationResult;
+import com.bogdan.order.integration.gateways.model.ValidationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(value = {AuthenticationGateway.class, TokenValidationCache.class, GatewayClientFactory.class,
+        UserServiceResilience.class, TokenRevocationList.class},
+        properties = {"user-service.validation.local=false", "user-service.validation.batch.window=10s",
+                "user-service.validation.batch.max-size=4"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AuthenticationGatewayBatchValidationTest {
+
+    @Autowired
+    MockRestServiceServer server;
+
+    @Autowired
+    AuthenticationGateway gateway;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    private static final String BASE_URL = "http://localhost:8081/api/authentications";
+
+    @Test
+    void validateToken_whenTokensValidatedConcurrently_callUserServiceOnceForWholeBatch() {
+        //Arrange
+        server.expect(once(), requestTo(BASE_URL + "/validate/batch"))
+              .andExpect(method(HttpMethod.POST))
+              .andRespond(validTokenPerUser());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //Act
+        List<CompletableFuture<Optional<ValidationResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String token = "user" + i;
+            responses.add(CompletableFuture.supplyAsync(() -> gateway.validateToken(token), executor));
+        }
+
+        //Assert
+        for (int i = 0; i < 4; i++) {
+            assertThat(responses.get(i)
+                                .join()).hasValue(new ValidationResponse("USER", "user" + i));
+        }
+        server.verify();
+        executor.shutdown();
+    }
+
+    @Test
+    void validateTokens_whenTokenRejected_returnNothingForThatToken() throws Exception {
+        //Arrange
+        List<TokenValidationResult> results = List.of(TokenValidationResult.builder()
+                                                                           .validation(new ValidationResponse("USER",
+                                                                                   "user"))
+                                                                           .build(),
+                TokenValidationResult.builder()
+                                     .rejection("Invalid token")
+                                     .build());
+        server.expect(requestTo(BASE_URL + "/validate/batch"))
+              .andRespond(withSuccess(mapper.writeValueAsString(results), MediaType.APPLICATION_JSON));
+
+        //Act
+        List<Optional<ValidationResponse>> responses = gateway.validateTokens(List.of("valid", "invalid"));
+
+        //Assert
+        assertThat(responses).containsExactly(Optional.of(new ValidationResponse("USER", "user")),
+                Optional.empty());
+    }
+
+    private ResponseCreator validTokenPerUser() {
+        return request -> {
+            BatchValidationRequest batch = mapper.readValue(((MockClientHttpRequest) request).getBodyAsString(),
+                    BatchValidationRequest.class);
+            List<TokenValidationResult> results = batch.tokens()
+                                                       .stream()
+                                                       .map(token -> TokenValidationResult.builder()
+                                                                                          .validation(
+                                                                                                  new ValidationResponse(
+                                                                                                          "USER",
+                                                                                                          token))
+                                                                                          .build())
+                                                       .toList();
+            return withSuccess(mapper.writeValueAsString(results), MediaType.APPLICATION_JSON).createResponse(
+                    request);
+        };
+    }
+}
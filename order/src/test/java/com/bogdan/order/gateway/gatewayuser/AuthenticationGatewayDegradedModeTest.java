@@ -0,0 +1,102 @@
+package com.bogdan.order.gateway.gatewayuser;
+
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
+import com.bogdan.order.integration.gateways.gatewaysuser.AuthenticationGateway;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.order.integration.gateways.gatewaysuser.UserServiceResilience;
+import com.bogdan.order.integration.gateways.model.ValidationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(value = {AuthenticationGateway.class, TokenValidationCache.class, GatewayClientFactory.class,
+        UserServiceResilience.class, TokenRevocationList.class},
+        properties = {"user-service.validation.local=false", "user-service.validation.batch.enabled=false",
+                "user-service.validation.cache.ttl=0s", "user-service.validation.cache.negative-ttl=0s",
+                "user-service.resilience.circuit-breaker.sliding-window-size=2",
+                "user-service.resilience.circuit-breaker.minimum-number-of-calls=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AuthenticationGatewayDegradedModeTest {
+
+    @Autowired
+    MockRestServiceServer server;
+
+    @Autowired
+    AuthenticationGateway gateway;
+
+    @Autowired
+    UserServiceResilience resilience;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    private static final String BASE_URL = "http://localhost:8081/api/authentications";
+
+    @Test
+    void validateToken_whenCircuitIsOpen_answerFromPreviouslyValidatedToken() throws JsonProcessingException {
+        //Arrange
+        String token = tokenExpiringIn(60);
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        server.expect(requestTo(BASE_URL + "/validate"))
+              .andRespond(withSuccess(mapper.writeValueAsString(validationResponse), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BASE_URL + "/validate"))
+              .andRespond(withServerError());
+        gateway.validateToken(token);
+        // one success and one failure in a window of two calls reach the 50% failure rate threshold
+        gateway.validateToken(tokenExpiringIn(60));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(resilience.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(response).hasValue(validationResponse);
+        server.verify();
+    }
+
+    @Test
+    void validateToken_whenCircuitIsOpenAndTokenExpired_returnNothing() throws JsonProcessingException {
+        //Arrange
+        String token = tokenExpiringIn(-60);
+        server.expect(requestTo(BASE_URL + "/validate"))
+              .andRespond(withSuccess(mapper.writeValueAsString(new ValidationResponse("USER", "user")),
+                      MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BASE_URL + "/validate"))
+              .andRespond(withServerError());
+        gateway.validateToken(token);
+        // one success and one failure in a window of two calls reach the 50% failure rate threshold
+        gateway.validateToken(tokenExpiringIn(60));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(resilience.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(response).isEmpty();
+    }
+
+    private static String tokenExpiringIn(long seconds) {
+        String payload = "{\"sub\":\"user\",\"exp\":" + (System.currentTimeMillis() / 1000 + seconds) + ",\"n\":\"" +
+                         System.nanoTime() + "\"}";
+        return "eyJhbGciOiJSUzI1NiJ9." + Base64.getUrlEncoder()
+                                               .withoutPadding()
+                                               .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) +
+               ".signature";
+    }
+}
@@ -0,0 +1,177 @@
+package com.bogdan.order.gateway.gatewayuser;
+
+import com.bogdan.order.integration.gateways.GatewayClientFactory;
+import com.bogdan.order.integration.gateways.gatewaysuser.AuthenticationGateway;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.order.integration.gateways.gatewaysuser.UserServiceResilience;
+import com.bogdan.order.integration.gateways.model.RevokedTokenEntry;
+import com.bogdan.order.integration.gateways.model.TokenValidationResult;
+import com.bogdan.order.integration.gateways.model.ValidationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest({AuthenticationGateway.class, TokenValidationCache.class, GatewayClientFactory.class,
+        UserServiceResilience.class, TokenRevocationList.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AuthenticationGatewayLocalValidationTest {
+
+    @Autowired
+    MockRestServiceServer server;
+
+    @Autowired
+    AuthenticationGateway gateway;
+
+    @Autowired
+    TokenRevocationList revocationList;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    private static final String BASE_URL = "http://localhost:8081/api/authentications";
+
+    private static final String TOKEN_ID = "token-id";
+
+    private final KeyPair keyPair = Jwts.SIG.RS256.keyPair()
+                                                  .build();
+
+    private final RsaPublicJwk publicJwk = Jwks.builder()
+                                               .key((RSAPublicKey) keyPair.getPublic())
+                                               .idFromThumbprint()
+                                               .build();
+
+    @Test
+    void validateToken_whenGivenValidToken_returnValidationResponseWithoutRemoteValidation() {
+        //Arrange
+        String token = generateToken(keyPair, "user", "USER", 60_000);
+        server.expect(once(), requestTo(BASE_URL + "/jwks"))
+              .andRespond(withSuccess(jwks(), MediaType.APPLICATION_JSON));
+
+        //Act
+        Optional<ValidationResponse> firstResponse = gateway.validateToken(token);
+        Optional<ValidationResponse> secondResponse = gateway.validateToken(token);
+
+        //Assert
+        assertThat(firstResponse).hasValue(new ValidationResponse("USER", "user"));
+        assertThat(secondResponse).hasValue(new ValidationResponse("USER", "user"));
+        server.verify();
+    }
+
+    @Test
+    void validateToken_whenGivenExpiredToken_returnNothing() {
+        //Arrange
+        String token = generateToken(keyPair, "user", "USER", -60_000);
+        server.expect(requestTo(BASE_URL + "/jwks"))
+              .andRespond(withSuccess(jwks(), MediaType.APPLICATION_JSON));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void validateToken_whenGivenTokenWithoutRole_returnNothing() {
+        //Arrange
+        String token = generateToken(keyPair, "user", null, 60_000);
+        server.expect(requestTo(BASE_URL + "/jwks"))
+              .andRespond(withSuccess(jwks(), MediaType.APPLICATION_JSON));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void validateToken_whenGivenTokenSignedWithUnknownKey_returnNothing() {
+        //Arrange
+        String token = generateToken(Jwts.SIG.RS256.keyPair()
+                                                   .build(), "user", "USER", 60_000);
+        server.expect(requestTo(BASE_URL + "/jwks"))
+              .andRespond(withSuccess(jwks(), MediaType.APPLICATION_JSON));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void validateToken_whenTokenWasRevoked_returnNothing() {
+        //Arrange
+        String token = generateToken(keyPair, "user", "USER", 60_000);
+        server.expect(requestTo(BASE_URL + "/jwks"))
+              .andRespond(withSuccess(jwks(), MediaType.APPLICATION_JSON));
+        revocationList.addAll(List.of(new RevokedTokenEntry(TOKEN_ID, System.currentTimeMillis() / 1000 + 60)), 1);
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void validateToken_whenKeysAreUnavailable_fallBackToRemoteValidation() throws JsonProcessingException {
+        //Arrange
+        String token = generateToken(keyPair, "user", "USER", 60_000);
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        server.expect(requestTo(BASE_URL + "/jwks"))
+              .andRespond(withServerError());
+        server.expect(requestTo(BASE_URL + "/validate/batch"))
+              .andRespond(withSuccess(mapper.writeValueAsString(List.of(TokenValidationResult.builder()
+                                                                                             .validation(
+                                                                                                     validationResponse)
+                                                                                             .build())),
+                      MediaType.APPLICATION_JSON));
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).hasValue(validationResponse);
+        server.verify();
+    }
+
+    private String jwks() {
+        return "{\"keys\":[" + Jwks.json(publicJwk) + "]}";
+    }
+
+    private String generateToken(KeyPair signingKeyPair, String username, String role, long validForMillis) {
+        return Jwts.builder()
+                   .header()
+                   .keyId(publicJwk.getId())
+                   .and()
+                   .id(TOKEN_ID)
+                   .subject(username)
+                   .claim("role", role)
+                   .expiration(new Date(System.currentTimeMillis() + validForMillis))
+                   .signWith(signingKeyPair.getPrivate(), Jwts.SIG.RS256)
+                   .compact();
+    }
+}
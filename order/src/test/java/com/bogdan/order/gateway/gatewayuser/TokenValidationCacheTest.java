@@ -0,0 +1,179 @@
+package com.bogdan.order.gateway.gatewayuser;
+
+import com.bogdan.order.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.order.integration.gateways.model.ValidationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenValidationCacheTest {
+
+    private final TokenValidationCache cache = new TokenValidationCache(100, Duration.ofMinutes(5),
+            Duration.ofSeconds(10));
+
+    @Test
+    void get_whenTokenValidatedTwice_validatorCalledOnce() {
+        //Arrange
+        String token = tokenExpiringIn(Duration.ofMinutes(10));
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Optional<ValidationResponse>> validator = t -> {
+            calls.incrementAndGet();
+            return Optional.of(validationResponse);
+        };
+
+        //Act
+        cache.get(token, validator);
+        Optional<ValidationResponse> response = cache.get(token, validator);
+
+        //Assert
+        assertThat(response).hasValue(validationResponse);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void evictUser_validateTheUsersTokensAgainAndKeepOthers() {
+        //Arrange
+        String userToken = tokenExpiringIn(Duration.ofMinutes(10));
+        String otherToken = tokenExpiringIn(Duration.ofMinutes(11));
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Optional<ValidationResponse>> validator = t -> {
+            calls.incrementAndGet();
+            return Optional.of(new ValidationResponse("USER", t.equals(userToken) ? "user" : "other"));
+        };
+        cache.get(userToken, validator);
+        cache.get(otherToken, validator);
+
+        //Act
+        cache.evictUser("user");
+
+        //Assert
+        assertThat(cache.getLastKnownGood(userToken)).isEmpty();
+        assertThat(cache.getLastKnownGood(otherToken)).isPresent();
+        cache.get(userToken, validator);
+        cache.get(otherToken, validator);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void get_whenTokenRejected_rejectionIsCached() {
+        //Arrange
+        String token = tokenExpiringIn(Duration.ofMinutes(10));
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Optional<ValidationResponse>> validator = t -> {
+            calls.incrementAndGet();
+            return Optional.empty();
+        };
+
+        //Act
+        cache.get(token, validator);
+        Optional<ValidationResponse> response = cache.get(token, validator);
+
+        //Assert
+        assertThat(response).isEmpty();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void get_whenTokenAlreadyExpired_resultIsNotCached() {
+        //Arrange
+        String token = tokenExpiringIn(Duration.ofMinutes(-1));
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Optional<ValidationResponse>> validator = t -> {
+            calls.incrementAndGet();
+            return Optional.of(new ValidationResponse("USER", "user"));
+        };
+
+        //Act
+        cache.get(token, validator);
+        cache.get(token, validator);
+
+        //Assert
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void get_whenSameTokenValidatedConcurrently_validatorCalledOnce() throws Exception {
+        //Arrange
+        String token = tokenExpiringIn(Duration.ofMinutes(10));
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, Optional<ValidationResponse>> validator = t -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+            return Optional.of(validationResponse);
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //Act
+        List<Future<Optional<ValidationResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(executor.submit(() -> cache.get(token, validator)));
+        }
+        while (registry.get("token.validation.coalesced")
+                       .functionCounter()
+                       .count() < 3) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        //Assert
+        for (Future<Optional<ValidationResponse>> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS)).hasValue(validationResponse);
+        }
+        assertThat(calls).hasValue(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void bindTo_whenTokenValidatedTwice_reportHitRatio() {
+        //Arrange
+        String token = tokenExpiringIn(Duration.ofMinutes(10));
+        Function<String, Optional<ValidationResponse>> validator = t -> Optional.of(
+                new ValidationResponse("USER", "user"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get(token, validator);
+
+        //Act
+        cache.get(token, validator);
+
+        //Assert
+        assertThat(registry.get("cache.hit.ratio")
+                           .tag("cache", "token-validation")
+                           .gauge()
+                           .value()).isEqualTo(0.5);
+    }
+
+    private String tokenExpiringIn(Duration duration) {
+        long expiration = System.currentTimeMillis() / 1000 + duration.toSeconds();
+        String payload = "{\"sub\":\"user\",\"exp\":" + expiration + "}";
+        Base64.Encoder encoder = Base64.getUrlEncoder()
+                                       .withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." +
+               encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -1,6 +1,8 @@
 package com.bogdan.shop.config;
 
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
@@ -25,6 +27,12 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing.key}")
     private String routingKey;
 
+    @Value("${rabbitmq.name.user-events-exchange}")
+    private String userEventsExchange;
+
+    @Value("${rabbitmq.routing.user-events-key}")
+    private String userEventsKey;
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(exchange);
@@ -42,6 +50,26 @@ public class RabbitMQConfig {
                              .with(routingKey);
     }
 
+    @Bean
+    public TopicExchange userEventsExchange() {
+        return new TopicExchange(userEventsExchange);
+    }
+
+    /**
+     * Every instance binds its own auto-deleted queue, so that all of them evict their caches on a user event.
+     */
+    @Bean
+    public Queue userEventsQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(userEventsExchange + "."));
+    }
+
+    @Bean
+    public Binding userEventsBinding() {
+        return BindingBuilder.bind(userEventsQueue())
+                             .to(userEventsExchange())
+                             .with(userEventsKey);
+    }
+
     @Bean
     public MessageConverter converter() {
         return new Jackson2JsonMessageConverter();
@@ -23,7 +23,7 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(request -> request.requestMatchers("api/orders/finish/{id}", "/swagger-ui/**",
-                                                             "/docs/**", "/swagger-ui.html")
+                                                             "/docs/**", "/swagger-ui.html", "/actuator/health")
                                                      .permitAll()
                                                      .anyRequest()
                                                      .authenticated())
@@ -1,5 +1,6 @@
 package com.bogdan.shop.controllers.api;
 
+import com.bogdan.shop.util.exceptions.InvalidCursorException;
 import com.bogdan.shop.util.exceptions.OperationNotSupportedException;
 import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
 import com.bogdan.shop.util.exceptions.ResourceNotOwnedException;
@@ -11,7 +12,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(value = {ResourceNotOwnedException.class, OperationNotSupportedException.class})
+    @ExceptionHandler(value = {ResourceNotOwnedException.class, OperationNotSupportedException.class,
+            InvalidCursorException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handleExceptions(Exception ex) {
         return ex.getMessage();
@@ -2,6 +2,10 @@ package com.bogdan.shop.controllers.api;
 
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductSearchResult;
+import com.bogdan.shop.controllers.models.ProductSort;
 import com.bogdan.shop.services.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -35,8 +40,29 @@ public class ProductController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("isAuthenticated()")
-    public List<GetProductDetails> getAllProducts() {
-        return service.getAllProducts();
+    public ProductPage getProducts(@RequestParam(required = false) String after,
+                                   @RequestParam(defaultValue = "20") int limit,
+                                   @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+                                   @RequestParam(required = false) Float minPrice,
+                                   @RequestParam(required = false) Float maxPrice,
+                                   @RequestParam(required = false) String name,
+                                   @RequestParam(required = false) Double minRating,
+                                   @RequestParam(defaultValue = "true") boolean reviews) {
+        ProductFilter filter = ProductFilter.builder()
+                                            .minPrice(minPrice)
+                                            .maxPrice(maxPrice)
+                                            .namePrefix(name)
+                                            .minRating(minRating)
+                                            .build();
+        return service.getProducts(filter, sort, after, limit, reviews);
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("isAuthenticated()")
+    public List<ProductSearchResult> searchProducts(@RequestParam("q") String query,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        return service.searchProducts(query, limit);
     }
 
     @GetMapping("/{id}")
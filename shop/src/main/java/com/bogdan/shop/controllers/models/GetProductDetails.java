@@ -1,9 +1,12 @@
 package com.bogdan.shop.controllers.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 import java.util.List;
 
 @Builder
-public record GetProductDetails(String name, String description, Float price, List<GetReview> reviews) {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GetProductDetails(Long id, String name, String description, Float price, GetRating rating,
+                                List<GetReview> reviews) {
 }
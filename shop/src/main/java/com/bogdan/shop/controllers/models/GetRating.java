@@ -0,0 +1,12 @@
+package com.bogdan.shop.controllers.models;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+/**
+ * @param stars number of reviews per number of stars, from 1 to 5
+ */
+@Builder
+public record GetRating(Integer reviewCount, Double averageStars, Map<Integer, Integer> stars) {
+}
@@ -0,0 +1,7 @@
+package com.bogdan.shop.controllers.models;
+
+import lombok.Builder;
+
+@Builder
+public record ProductFilter(Float minPrice, Float maxPrice, String namePrefix, Double minRating) {
+}
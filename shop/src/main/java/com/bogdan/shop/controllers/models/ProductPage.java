@@ -0,0 +1,13 @@
+package com.bogdan.shop.controllers.models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * A page of the product listing. {@code nextCursor} is passed as {@code after}, with the same sort, to get the next
+ * page and is null on the last page.
+ */
+@Builder
+public record ProductPage(List<GetProductDetails> products, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.bogdan.shop.controllers.models;
+
+public record ProductReview(Long productId, String sender, String message, Integer numberOfStars) {
+}
@@ -0,0 +1,4 @@
+package com.bogdan.shop.controllers.models;
+
+public record ProductSearchResult(Long id, String name, String description, Float price, double score) {
+}
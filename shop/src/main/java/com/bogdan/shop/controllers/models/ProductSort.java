@@ -0,0 +1,11 @@
+package com.bogdan.shop.controllers.models;
+
+/**
+ * Orders of the product listing: cheapest first, by name, best rated first and most recently added first.
+ */
+public enum ProductSort {
+    PRICE,
+    NAME,
+    RATING,
+    NEWEST
+}
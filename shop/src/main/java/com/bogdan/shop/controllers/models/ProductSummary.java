@@ -0,0 +1,6 @@
+package com.bogdan.shop.controllers.models;
+
+import com.bogdan.shop.persistence.entities.ProductRating;
+
+public record ProductSummary(Long id, String name, String description, Float price, ProductRating rating) {
+}
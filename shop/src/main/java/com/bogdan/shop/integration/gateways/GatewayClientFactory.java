@@ -0,0 +1,148 @@
+package com.bogdan.shop.integration.gateways;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds the {@link RestClient}s used by the gateways. Every gateway gets its own connection pool so that a slow
+ * downstream service cannot starve the calls made to the others.
+ */
+@Component
+public class GatewayClientFactory implements DisposableBean {
+
+    private final RestClientBuilderConfigurer builderConfigurer;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final List<Closeable> httpClients = new CopyOnWriteArrayList<>();
+
+    @Value("${gateway.http.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${gateway.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${gateway.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${gateway.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${gateway.http.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${gateway.http.http2:false}")
+    private boolean http2;
+
+    public GatewayClientFactory(RestClientBuilderConfigurer builderConfigurer,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.builderConfigurer = builderConfigurer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RestClient create(String gatewayName, String baseUrl) {
+        ClientHttpRequestFactory requestFactory = http2 ? http2RequestFactory() : pooledRequestFactory(gatewayName);
+        RestClient.Builder builder = RestClient.builder()
+                                               .requestFactory(requestFactory)
+                                               .baseUrl(baseUrl);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            builder.requestInterceptor(latencyInterceptor(gatewayName, registry));
+        }
+        // applying the customizers last keeps the observation and test customizations in place
+        return builderConfigurer.configure(builder)
+                                .build();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Closeable httpClient : httpClients) {
+            httpClient.close();
+        }
+    }
+
+    private ClientHttpRequestFactory pooledRequestFactory(String gatewayName) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                                                            .setConnectTimeout(Timeout.of(connectTimeout))
+                                                            .setSocketTimeout(Timeout.of(readTimeout))
+                                                            .build();
+        PoolingHttpClientConnectionManager connectionManager =
+                PoolingHttpClientConnectionManagerBuilder.create()
+                                                         .setMaxConnPerRoute(maxConnectionsPerRoute)
+                                                         .setMaxConnTotal(maxConnections)
+                                                         .setDefaultConnectionConfig(connectionConfig)
+                                                         .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                                                    .setConnectionManager(connectionManager)
+                                                    .setKeepAliveStrategy(
+                                                            (response, context) -> TimeValue.of(keepAlive))
+                                                    .evictIdleConnections(TimeValue.of(keepAlive))
+                                                    .build();
+        httpClients.add(httpClient);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, gatewayName).bindTo(registry);
+        }
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(connectTimeout);
+        return requestFactory;
+    }
+
+    private ClientHttpRequestFactory http2RequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                                          .version(HttpClient.Version.HTTP_2)
+                                          .connectTimeout(connectTimeout)
+                                          .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+    private ClientHttpRequestInterceptor latencyInterceptor(String gatewayName, MeterRegistry registry) {
+        return (request, body, execution) -> {
+            Timer.Sample sample = Timer.start(registry);
+            String outcome = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                outcome = String.valueOf(response.getStatusCode()
+                                                 .value());
+                return response;
+            } finally {
+                sample.stop(Timer.builder("gateway.requests")
+                                 .description("Latency of the calls made by a gateway")
+                                 .tag("gateway", gatewayName)
+                                 .tag("method", request.getMethod()
+                                                       .name())
+                                 .tag("status", outcome)
+                                 .publishPercentileHistogram()
+                                 .register(registry));
+            }
+        };
+    }
+}
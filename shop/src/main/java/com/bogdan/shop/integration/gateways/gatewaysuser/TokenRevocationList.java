@@ -0,0 +1,86 @@
+package com.bogdan.shop.integration.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.model.RevokedTokenEntry;
+import com.bogdan.shop.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of the tokens revoked by the user service, pulled periodically by {@link RevocationListSync}. A Bloom
+ * filter answers for the tokens that were never revoked so that they do not touch the revocation map at all.
+ */
+@Component
+public class TokenRevocationList implements MeterBinder {
+
+    private final Map<String, Long> revocations = new ConcurrentHashMap<>();
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    private volatile long cursor;
+
+    public TokenRevocationList(
+            @Value("${user-service.revocations.expected-revocations:100000}") long expectedRevocations,
+            @Value("${user-service.revocations.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revocations.containsKey(jti);
+    }
+
+    public synchronized void addAll(List<RevokedTokenEntry> entries, long cursor) {
+        for (RevokedTokenEntry entry : entries) {
+            revocations.put(entry.jti(), entry.expiresAt());
+            filter.put(entry.jti());
+        }
+        this.cursor = Math.max(this.cursor, cursor);
+    }
+
+    /**
+     * Forgets the revoked tokens that expired in the meantime and rebuilds the filter, since a Bloom filter cannot
+     * remove entries.
+     */
+    public synchronized void pruneExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        revocations.values()
+                   .removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        revocations.keySet()
+                   .forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("token.revocation.filter.false-positive-rate", this,
+                     list -> list.filter.expectedFalsePositiveRate())
+             .description("Expected false-positive rate of the token revocation filter")
+             .register(registry);
+        Gauge.builder("token.revocation.filter.size", this, list -> list.filter.getSizeInBytes())
+             .description("Memory used by the token revocation filter")
+             .baseUnit(BaseUnits.BYTES)
+             .register(registry);
+        Gauge.builder("token.revocation.entries", revocations, Map::size)
+             .description("Revoked tokens known to this service")
+             .register(registry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bogdan.shop.integration.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.model.ValidationResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Collects the tokens submitted within a short window and validates them with a single call. The first caller of
+ * a batch sends it once the window elapses, unless another caller fills the batch first and sends it right away.
+ */
+public class TokenValidationBatcher {
+
+    private final Function<List<String>, List<Optional<ValidationResponse>>> batchValidator;
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private List<PendingValidation> currentBatch;
+
+    public TokenValidationBatcher(Function<List<String>, List<Optional<ValidationResponse>>> batchValidator,
+                                  Duration window, int maxBatchSize) {
+        this.batchValidator = batchValidator;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Optional<ValidationResponse> validate(String token) {
+        PendingValidation validation = new PendingValidation(token, new CompletableFuture<>());
+        List<PendingValidation> batch;
+        boolean leader;
+        boolean full;
+        synchronized (this) {
+            if (currentBatch == null) {
+                currentBatch = new ArrayList<>();
+            }
+            batch = currentBatch;
+            leader = batch.isEmpty();
+            batch.add(validation);
+            full = batch.size() >= maxBatchSize;
+            if (full) {
+                currentBatch = null;
+            }
+        }
+        if (full) {
+            flush(batch);
+        } else if (leader) {
+            awaitWindow(validation.result());
+            boolean stillOpen;
+            synchronized (this) {
+                stillOpen = currentBatch == batch;
+                if (stillOpen) {
+                    currentBatch = null;
+                }
+            }
+            if (stillOpen) {
+                flush(batch);
+            }
+        }
+        try {
+            return validation.result()
+                             .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void awaitWindow(CompletableFuture<?> result) {
+        try {
+            // returns early when another caller fills and sends the batch
+            result.get(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // either the window elapsed or the batch has already failed
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+    private void flush(List<PendingValidation> batch) {
+        try {
+            List<Optional<ValidationResponse>> results = batchValidator.apply(batch.stream()
+                                                                                   .map(PendingValidation::token)
+                                                                                   .toList());
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException(
+                        "Expected " + batch.size() + " validation results but received " + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i)
+                     .result()
+                     .complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(validation -> validation.result()
+                                                  .completeExceptionally(e));
+        }
+    }
+
+    private record PendingValidation(String token, CompletableFuture<Optional<ValidationResponse>> result) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.bogdan.shop.integration.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.model.ValidationResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class TokenValidationCache implements MeterBinder {
+
+    private final AsyncCache<String, CachedValidation> cache;
+
+    private final Cache<String, CachedValidation> lastKnownGood;
+
+    private final AtomicLong coalescedValidations = new AtomicLong();
+
+    private final AtomicLong degradedHits = new AtomicLong();
+
+    private final AtomicLong degradedMisses = new AtomicLong();
+
+    private final Duration ttl;
+
+    private final Duration negativeTtl;
+
+    public TokenValidationCache(@Value("${user-service.validation.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${user-service.validation.cache.ttl:5m}") Duration ttl,
+                                @Value("${user-service.validation.cache.negative-ttl:10s}") Duration negativeTtl) {
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfter(new ValidationExpiry())
+                             .recordStats()
+                             .buildAsync();
+        this.lastKnownGood = Caffeine.newBuilder()
+                                     .maximumSize(maximumSize)
+                                     .expireAfter(new ValidationExpiry())
+                                     .recordStats()
+                                     .build();
+    }
+
+    public Optional<ValidationResponse> get(String token,
+                                            Function<String, Optional<ValidationResponse>> validator) {
+        String key = digest(token);
+        CompletableFuture<CachedValidation> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            CompletableFuture<CachedValidation> validation = new CompletableFuture<>();
+            cached = cache.asMap()
+                          .putIfAbsent(key, validation);
+            if (cached == null) {
+                return validate(token, key, validator, validation);
+            }
+        }
+        if (!cached.isDone()) {
+            // another request is already validating this token, wait for its result instead of calling again
+            coalescedValidations.incrementAndGet();
+        }
+        return join(cached);
+    }
+
+    /**
+     * Answers from the tokens that were validated successfully before and have not expired yet. Only meant for
+     * when the user service cannot be reached.
+     */
+    public Optional<ValidationResponse> getLastKnownGood(String token) {
+        CachedValidation validation = lastKnownGood.getIfPresent(digest(token));
+        if (validation == null) {
+            degradedMisses.incrementAndGet();
+            return Optional.empty();
+        }
+        degradedHits.incrementAndGet();
+        return validation.response();
+    }
+
+    /**
+     * Drops every validation of the user's tokens, so that their next use is checked by the user service again.
+     */
+    public void evictUser(String username) {
+        cache.asMap()
+             .values()
+             .removeIf(validation -> validation.isDone() && !validation.isCompletedExceptionally() && belongsTo(
+                     validation.join(), username));
+        lastKnownGood.asMap()
+                     .values()
+                     .removeIf(validation -> belongsTo(validation, username));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "token-validation");
+        CaffeineCacheMetrics.monitor(registry, lastKnownGood, "token-validation-last-known-good");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous()
+                                                      .stats()
+                                                      .hitRate())
+             .description("Share of token validations served from the cache")
+             .tag("cache", "token-validation")
+             .register(registry);
+        Gauge.builder("cache.hit.ratio", lastKnownGood, c -> c.stats()
+                                                              .hitRate())
+             .description("Share of degraded token validations served from previously validated tokens")
+             .tag("cache", "token-validation-last-known-good")
+             .register(registry);
+        FunctionCounter.builder("token.validation.coalesced", coalescedValidations, AtomicLong::get)
+                       .description("Validations that waited for an identical in-flight validation")
+                       .register(registry);
+        FunctionCounter.builder("token.validation.degraded", degradedHits, AtomicLong::get)
+                       .description("Validations answered from previously validated tokens")
+                       .tag("result", "hit")
+                       .register(registry);
+        FunctionCounter.builder("token.validation.degraded", degradedMisses, AtomicLong::get)
+                       .description("Validations answered from previously validated tokens")
+                       .tag("result", "miss")
+                       .register(registry);
+    }
+
+    private Optional<ValidationResponse> validate(String token, String key,
+                                                  Function<String, Optional<ValidationResponse>> validator,
+                                                  CompletableFuture<CachedValidation> validation) {
+        try {
+            Optional<ValidationResponse> response = validator.apply(token);
+            validation.complete(new CachedValidation(response, timeToLiveNanos(token, response)));
+            if (response.isPresent()) {
+                Long untilExpiration = untilExpirationNanos(token);
+                lastKnownGood.put(key, new CachedValidation(response,
+                        untilExpiration != null ? untilExpiration : ttl.toNanos()));
+            }
+            return response;
+        } catch (RuntimeException e) {
+            // failed validations are dropped from the cache so that the next request retries
+            validation.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static boolean belongsTo(CachedValidation validation, String username) {
+        return validation.response()
+                         .map(response -> username.equals(response.username()))
+                         .orElse(false);
+    }
+
+    private static Optional<ValidationResponse> join(CompletableFuture<CachedValidation> validation) {
+        try {
+            return validation.join()
+                             .response();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private long timeToLiveNanos(String token, Optional<ValidationResponse> response) {
+        if (response.isEmpty()) {
+            return negativeTtl.toNanos();
+        }
+        long timeToLive = ttl.toNanos();
+        Long untilExpiration = untilExpirationNanos(token);
+        if (untilExpiration != null) {
+            timeToLive = Math.min(timeToLive, untilExpiration);
+        }
+        return timeToLive;
+    }
+
+    private static Long untilExpirationNanos(String token) {
+        // the token was already validated by the user service, we only need its expiration to bound the entry
+        Long expiration = TokenPayload.getExpiration(token);
+        if (expiration == null) {
+            return null;
+        }
+        return Duration.ofSeconds(expiration)
+                       .minusMillis(System.currentTimeMillis())
+                       .toNanos();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder()
+                         .encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedValidation(Optional<ValidationResponse> response, long timeToLiveNanos) {
+    }
+
+    private static class ValidationExpiry implements Expiry<String, CachedValidation> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedValidation value, long currentTime) {
+            return Math.max(0, value.timeToLiveNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedValidation value, long currentTime,
+                                      long currentDuration) {
+            return Math.max(0, value.timeToLiveNanos());
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedValidation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
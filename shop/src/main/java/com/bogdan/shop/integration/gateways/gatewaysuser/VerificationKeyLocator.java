@@ -0,0 +1,70 @@
+package com.bogdan.shop.integration.gateways.gatewaysuser;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+    private static final long MIN_REFRESH_INTERVAL_MILLIS = 30_000;
+
+    private final Supplier<String> jwksSupplier;
+
+    private volatile Map<String, Key> keys = Map.of();
+
+    private long lastRefresh;
+
+    public VerificationKeyLocator(Supplier<String> jwksSupplier) {
+        this.jwksSupplier = jwksSupplier;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            return null;
+        }
+        Key key = keys.get(keyId);
+        if (key == null) {
+            // an unknown key id usually means the user service rotated its keys
+            refresh();
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    private synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        if (now - lastRefresh < MIN_REFRESH_INTERVAL_MILLIS) {
+            if (keys.isEmpty()) {
+                throw new VerificationKeysUnavailableException("Verification keys are not available", null);
+            }
+            return;
+        }
+        lastRefresh = now;
+        try {
+            keys = parseKeys(jwksSupplier.get());
+        } catch (RuntimeException e) {
+            throw new VerificationKeysUnavailableException("Could not load verification keys", e);
+        }
+    }
+
+    private Map<String, Key> parseKeys(String jwks) {
+        Map<String, Key> parsedKeys = new HashMap<>();
+        for (Jwk<?> jwk : Jwks.setParser()
+                              .build()
+                              .parse(jwks)) {
+            if (jwk.getId() != null && jwk.toKey() instanceof PublicKey publicKey) {
+                parsedKeys.put(jwk.getId(), publicKey);
+            }
+        }
+        return Map.copyOf(parsedKeys);
+    }
+}
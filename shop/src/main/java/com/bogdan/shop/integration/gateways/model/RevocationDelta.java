@@ -0,0 +1,9 @@
+package com.bogdan.shop.integration.gateways.model;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record RevocationDelta(List<RevokedTokenEntry> revocations, long cursor) {
+}
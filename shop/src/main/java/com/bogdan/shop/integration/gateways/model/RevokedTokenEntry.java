@@ -0,0 +1,7 @@
+package com.bogdan.shop.integration.gateways.model;
+
+import lombok.Builder;
+
+@Builder
+public record RevokedTokenEntry(String jti, long expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.bogdan.shop.integration.messages.model;
+
+public record UserEvent(String username, String newUsername) {
+}
@@ -0,0 +1,30 @@
+package com.bogdan.shop.integration.messages.receiver;
+
+import com.bogdan.shop.integration.gateways.gatewaysuser.RevocationListSync;
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.shop.integration.messages.model.UserEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserEventReceiver {
+
+    private final TokenValidationCache tokenValidationCache;
+
+    private final RevocationListSync revocationListSync;
+
+    /**
+     * Forgets the cached identity of a changed or deleted user and pulls the revocation of their tokens now rather
+     * than on the next scheduled pull.
+     */
+    @RabbitListener(queues = "#{userEventsQueue.name}")
+    public void consumeUserEvent(UserEvent event) {
+        log.info("User event received: {}", event);
+        tokenValidationCache.evictUser(event.username());
+        revocationListSync.pullRevocations();
+    }
+}
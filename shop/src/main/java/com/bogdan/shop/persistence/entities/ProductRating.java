@@ -0,0 +1,46 @@
+package com.bogdan.shop.persistence.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Review aggregates of a product, kept up to date by the review service and repaired periodically from the reviews.
+ * Only read through JPA, the changes are made by {@code ProductRatingRepository} in single statements.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class ProductRating {
+
+    @Id
+    private Long productId;
+
+    private int reviewCount;
+
+    private long starSum;
+
+    private int oneStar;
+
+    private int twoStars;
+
+    private int threeStars;
+
+    private int fourStars;
+
+    private int fiveStars;
+
+    // computed by the database from the star sum and the review count
+    @Column(insertable = false, updatable = false)
+    private double averageStars;
+}
@@ -0,0 +1,76 @@
+package com.bogdan.shop.persistence.repositories;
+
+import com.bogdan.shop.persistence.entities.ProductRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ProductRatingRepository extends JpaRepository<ProductRating, Long> {
+
+    /**
+     * Adds the rating of a new product, without reviews. Every product has one, the listing joins them.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into product_rating (product_id) values (:productId)")
+    void insertEmpty(Long productId);
+
+    /**
+     * Takes the stars of a review out of the rating of the product and adds others, in one statement, so that
+     * concurrent changes to the reviews of a product are not lost. Either may be null, a review is created with
+     * {@code removedStars} null and deleted with {@code addedStars} null.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into product_rating (product_id, review_count, star_sum, one_star, two_stars, three_stars,
+                four_stars, five_stars)
+            values (:productId,
+                (:addedStars is not null) - (:removedStars is not null),
+                coalesce(:addedStars, 0) - coalesce(:removedStars, 0),
+                (:addedStars <=> 1) - (:removedStars <=> 1),
+                (:addedStars <=> 2) - (:removedStars <=> 2),
+                (:addedStars <=> 3) - (:removedStars <=> 3),
+                (:addedStars <=> 4) - (:removedStars <=> 4),
+                (:addedStars <=> 5) - (:removedStars <=> 5)) as delta
+            on duplicate key update review_count = product_rating.review_count + delta.review_count,
+                star_sum = product_rating.star_sum + delta.star_sum,
+                one_star = product_rating.one_star + delta.one_star,
+                two_stars = product_rating.two_stars + delta.two_stars,
+                three_stars = product_rating.three_stars + delta.three_stars,
+                four_stars = product_rating.four_stars + delta.four_stars,
+                five_stars = product_rating.five_stars + delta.five_stars""")
+    void changeStars(Long productId, Integer removedStars, Integer addedStars);
+
+    /**
+     * Recomputes the ratings of the products with ids in {@code (afterId, untilId]} from their reviews.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into product_rating (product_id, review_count, star_sum, one_star, two_stars, three_stars,
+                four_stars, five_stars)
+            select * from (
+                select p.id, count(r.number_of_stars) as review_count,
+                    coalesce(sum(r.number_of_stars), 0) as star_sum,
+                    coalesce(sum(r.number_of_stars <=> 1), 0) as one_star,
+                    coalesce(sum(r.number_of_stars <=> 2), 0) as two_stars,
+                    coalesce(sum(r.number_of_stars <=> 3), 0) as three_stars,
+                    coalesce(sum(r.number_of_stars <=> 4), 0) as four_stars,
+                    coalesce(sum(r.number_of_stars <=> 5), 0) as five_stars
+                from product p
+                left join review r on r.product = p.id
+                where p.id > :afterId and p.id <= :untilId
+                group by p.id) as recomputed
+            on duplicate key update review_count = recomputed.review_count,
+                star_sum = recomputed.star_sum,
+                one_star = recomputed.one_star,
+                two_stars = recomputed.two_stars,
+                three_stars = recomputed.three_stars,
+                four_stars = recomputed.four_stars,
+                five_stars = recomputed.five_stars""")
+    void recompute(long afterId, long untilId);
+}
@@ -2,10 +2,24 @@ package com.bogdan.shop.persistence.repositories;
 
 import com.bogdan.shop.persistence.entities.Product;
 import com.bogdan.shop.persistence.entities.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Product findByReviewsContains(List<Review> reviews);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "reviews")
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findWithReviewsById(Long id);
+
+    @Query("select p from Product p where p.id > :after order by p.id")
+    List<Product> findPageAfter(long after, Pageable pageable);
+
+    @Query("select coalesce(max(p.id), 0) from Product p")
+    long findMaxId();
+}
@@ -0,0 +1,102 @@
+package com.bogdan.shop.persistence.repositories;
+
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductSort;
+import com.bogdan.shop.controllers.models.ProductSummary;
+import com.bogdan.shop.util.ProductCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the product listing query from the filters that are set, so that every filter, the sort and the cursor are
+ * applied by the database and only one page of rows is read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+
+    private final EntityManager entityManager;
+
+    public List<ProductSummary> findPage(ProductFilter filter, ProductSort sort, ProductCursor after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.minPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            parameters.put("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.maxPrice());
+        }
+        if (filter.namePrefix() != null && !filter.namePrefix()
+                                                  .isEmpty()) {
+            conditions.add("p.name like :namePattern escape '!'");
+            parameters.put("namePattern", toLikePattern(filter.namePrefix()));
+        }
+        if (filter.minRating() != null) {
+            conditions.add("r.averageStars >= :minRating");
+            parameters.put("minRating", filter.minRating());
+        }
+        if (after != null) {
+            conditions.add(afterCondition(sort, after));
+            parameters.put("afterId", after.id());
+            if (after.value() != null) {
+                parameters.put("afterValue", after.value());
+            }
+        }
+        StringBuilder jpql = new StringBuilder(
+                "select new com.bogdan.shop.controllers.models.ProductSummary(p.id, p.name, p.description, p.price, r)"
+                        + " from Product p join ProductRating r on r.productId = p.id");
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ")
+                .append(String.join(" and ", conditions));
+        }
+        jpql.append(" order by ")
+            .append(orderBy(sort));
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit)
+                    .getResultList();
+    }
+
+    private static String orderBy(ProductSort sort) {
+        return switch (sort) {
+            case PRICE -> "p.price, p.id";
+            case NAME -> "p.name, p.id";
+            // the columns of the rating index, so that MySQL reads it backwards instead of sorting
+            case RATING -> "r.averageStars desc, r.productId desc";
+            case NEWEST -> "p.id desc";
+        };
+    }
+
+    private static String afterCondition(ProductSort sort, ProductCursor after) {
+        return switch (sort) {
+            case PRICE -> ascendingAfter("p.price", after);
+            case NAME -> ascendingAfter("p.name", after);
+            case RATING -> "(r.averageStars < :afterValue"
+                    + " or (r.averageStars = :afterValue and r.productId < :afterId))";
+            case NEWEST -> "p.id < :afterId";
+        };
+    }
+
+    private static String ascendingAfter(String column, ProductCursor after) {
+        // MySQL sorts nulls first in ascending order, so the products without a value come before all the others
+        if (after.value() == null) {
+            return "((" + column + " is null and p.id > :afterId) or " + column + " is not null)";
+        }
+        return "(" + column + " > :afterValue or (" + column + " = :afterValue and p.id > :afterId))";
+    }
+
+    private static String toLikePattern(String prefix) {
+        return prefix.replace("!", "!!")
+                     .replace("%", "!%")
+                     .replace("_", "!_") + "%";
+    }
+}
@@ -1,11 +1,22 @@
 package com.bogdan.shop.persistence.repositories;
 
+import com.bogdan.shop.controllers.models.ProductReview;
 import com.bogdan.shop.persistence.entities.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findBySender(@NonNull String sender);
+
+    @Query("""
+            select new com.bogdan.shop.controllers.models.ProductReview(r.product.id, r.sender, r.message,
+                r.numberOfStars)
+            from Review r
+            where r.product.id in :productIds
+            order by r.id""")
+    List<ProductReview> findByProductIds(Collection<Long> productIds);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.bogdan.shop.services;
+
+import com.bogdan.shop.controllers.models.GetProductDetails;
+
+import java.util.function.Function;
+
+public interface ProductCacheService {
+
+    GetProductDetails get(Long id, Function<Long, GetProductDetails> loader);
+
+    void evict(Long id);
+}
@@ -0,0 +1,17 @@
+package com.bogdan.shop.services;
+
+import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.util.InvertedIndex;
+
+import java.util.List;
+
+public interface ProductIndexService {
+
+    void rebuild();
+
+    void index(Product product);
+
+    void remove(Long id);
+
+    List<InvertedIndex.Hit> search(String query, int limit);
+}
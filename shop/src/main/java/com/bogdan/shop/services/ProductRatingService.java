@@ -0,0 +1,6 @@
+package com.bogdan.shop.services;
+
+public interface ProductRatingService {
+
+    void repairRatings();
+}
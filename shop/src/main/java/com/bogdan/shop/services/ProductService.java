@@ -2,6 +2,10 @@ package com.bogdan.shop.services;
 
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductSearchResult;
+import com.bogdan.shop.controllers.models.ProductSort;
 
 import java.util.List;
 
@@ -9,7 +13,9 @@ public interface ProductService {
 
     void addProduct(CreateUpdateProduct product);
 
-    List<GetProductDetails> getAllProducts();
+    ProductPage getProducts(ProductFilter filter, ProductSort sort, String after, int limit, boolean includeReviews);
+
+    List<ProductSearchResult> searchProducts(String query, int limit);
 
     GetProductDetails getProduct(Long id);
 
@@ -0,0 +1,103 @@
+package com.bogdan.shop.services.impl;
+
+import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.services.ProductCacheService;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the product details. Concurrent misses on the same product wait for the first one to load
+ * it instead of all going to the database. Evicting a product also drops a load that is still in flight, so a load
+ * that read the product before it was changed is not cached.
+ */
+@Service
+public class ProductCacheServiceImpl implements ProductCacheService, MeterBinder {
+
+    private final AsyncCache<Long, GetProductDetails> cache;
+
+    private final AtomicLong coalescedLoads = new AtomicLong();
+
+    public ProductCacheServiceImpl(@Value("${products.cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${products.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(ttl)
+                             .recordStats()
+                             .buildAsync();
+    }
+
+    @Override
+    public GetProductDetails get(Long id, Function<Long, GetProductDetails> loader) {
+        CompletableFuture<GetProductDetails> cached = cache.getIfPresent(id);
+        if (cached == null) {
+            CompletableFuture<GetProductDetails> load = new CompletableFuture<>();
+            cached = cache.asMap()
+                          .putIfAbsent(id, load);
+            if (cached == null) {
+                return load(id, loader, load);
+            }
+        }
+        if (!cached.isDone()) {
+            coalescedLoads.incrementAndGet();
+        }
+        return join(cached);
+    }
+
+    @Override
+    public void evict(Long id) {
+        cache.synchronous()
+             .invalidate(id);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "product-details");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous()
+                                                      .stats()
+                                                      .hitRate())
+             .description("Share of product details served from the cache")
+             .tag("cache", "product-details")
+             .register(registry);
+        FunctionCounter.builder("product.details.coalesced", coalescedLoads, AtomicLong::get)
+                       .description("Product loads that waited for an identical load in flight")
+                       .register(registry);
+    }
+
+    private static GetProductDetails load(Long id, Function<Long, GetProductDetails> loader,
+                                          CompletableFuture<GetProductDetails> load) {
+        try {
+            GetProductDetails product = loader.apply(id);
+            load.complete(product);
+            return product;
+        } catch (RuntimeException e) {
+            // failed loads, a missing product included, are dropped from the cache so that the next request retries
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static GetProductDetails join(CompletableFuture<GetProductDetails> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
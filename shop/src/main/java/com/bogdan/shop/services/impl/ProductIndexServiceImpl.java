@@ -0,0 +1,137 @@
+package com.bogdan.shop.services.impl;
+
+import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.services.ProductIndexService;
+import com.bogdan.shop.util.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the full-text index of the product names and descriptions. The index is built from the database when the
+ * service starts and rebuilt periodically, so that changes made by other instances show up as well, while the changes
+ * made through this instance are applied right away.
+ */
+@Service
+@Slf4j
+public class ProductIndexServiceImpl implements ProductIndexService, MeterBinder {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final float NAME_WEIGHT = 3;
+
+    private static final float DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository repository;
+
+    private final int pageSize;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    // the index being rebuilt, changes made meanwhile are applied to both
+    private InvertedIndex rebuilding;
+
+    public ProductIndexServiceImpl(ProductRepository repository,
+                                   @Value("${products.search.page-size:1000}") int pageSize) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${products.search.rebuild-interval:1h}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex newIndex = new InvertedIndex();
+        synchronized (this) {
+            rebuilding = newIndex;
+        }
+        try {
+            long after = 0;
+            List<Product> products;
+            do {
+                products = repository.findPageAfter(after, PageRequest.ofSize(pageSize));
+                synchronized (this) {
+                    products.forEach(product -> newIndex.put(product.getId(), termWeights(product)));
+                }
+                if (!products.isEmpty()) {
+                    after = products.get(products.size() - 1)
+                                    .getId();
+                }
+            } while (products.size() == pageSize);
+            synchronized (this) {
+                index = newIndex;
+            }
+            log.info("Indexed {} products in {} ms, {} terms, about {} KB", newIndex.documentCount(),
+                    (System.nanoTime() - start) / 1_000_000, newIndex.termCount(),
+                    newIndex.estimatedSizeInBytes() / 1024);
+        } catch (RuntimeException e) {
+            // searches keep using the previous index until the next rebuild
+            log.warn("Could not rebuild the product index: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void index(Product product) {
+        Map<String, Float> termWeights = termWeights(product);
+        index.put(product.getId(), termWeights);
+        if (rebuilding != null) {
+            rebuilding.put(product.getId(), termWeights);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        index.remove(id);
+        if (rebuilding != null) {
+            rebuilding.remove(id);
+        }
+    }
+
+    @Override
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        List<String> terms = InvertedIndex.tokenize(query)
+                                          .stream()
+                                          .distinct()
+                                          .toList();
+        return index.search(terms, Math.max(1, Math.min(limit, MAX_RESULTS)));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("product.search.index.size", this, service -> service.index.estimatedSizeInBytes())
+             .description("Estimated memory used by the product search index")
+             .baseUnit(BaseUnits.BYTES)
+             .register(registry);
+        Gauge.builder("product.search.index.terms", this, service -> service.index.termCount())
+             .description("Distinct terms in the product search index")
+             .register(registry);
+        Gauge.builder("product.search.index.documents", this, service -> service.index.documentCount())
+             .description("Products in the product search index")
+             .register(registry);
+    }
+
+    private static Map<String, Float> termWeights(Product product) {
+        Map<String, Float> termWeights = new HashMap<>();
+        InvertedIndex.tokenize(product.getName())
+                     .forEach(term -> termWeights.merge(term, NAME_WEIGHT, Float::sum));
+        InvertedIndex.tokenize(product.getDescription())
+                     .forEach(term -> termWeights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        return termWeights;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bogdan.shop.services.impl;
+
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
+import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.services.ProductRatingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Repairs the product ratings from the reviews, in case a change was made without going through the review service.
+ * The products are recomputed a range of ids at a time, each range in its own transaction, so that the reviews are
+ * only locked briefly.
+ */
+@Service
+@Slf4j
+public class ProductRatingServiceImpl implements ProductRatingService {
+
+    private final ProductRepository productRepository;
+
+    private final ProductRatingRepository productRatingRepository;
+
+    private final int batchSize;
+
+    public ProductRatingServiceImpl(ProductRepository productRepository,
+                                    ProductRatingRepository productRatingRepository,
+                                    @Value("${products.rating.repair-batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productRatingRepository = productRatingRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${products.rating.repair-interval:1d}",
+            initialDelayString = "${products.rating.repair-interval:1d}")
+    public void repairRatings() {
+        long start = System.nanoTime();
+        long maxId = productRepository.findMaxId();
+        for (long afterId = 0; afterId < maxId; afterId += batchSize) {
+            productRatingRepository.recompute(afterId, Math.min(afterId + batchSize, maxId));
+        }
+        log.info("Recomputed the ratings of the products up to id {} in {} ms", maxId,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -2,24 +2,57 @@ package com.bogdan.shop.services.impl;
 
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.GetRating;
 import com.bogdan.shop.controllers.models.GetReview;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductReview;
+import com.bogdan.shop.controllers.models.ProductSearchResult;
+import com.bogdan.shop.controllers.models.ProductSort;
+import com.bogdan.shop.controllers.models.ProductSummary;
 import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.persistence.entities.ProductRating;
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
 import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.persistence.repositories.ProductSearchRepository;
+import com.bogdan.shop.persistence.repositories.ReviewRepository;
+import com.bogdan.shop.services.ProductCacheService;
+import com.bogdan.shop.services.ProductIndexService;
 import com.bogdan.shop.services.ProductService;
+import com.bogdan.shop.util.InvertedIndex;
+import com.bogdan.shop.util.ProductCursor;
 import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository repository;
 
+    private final ProductSearchRepository productSearchRepository;
+
+    private final ReviewRepository reviewRepository;
+
+    private final ProductRatingRepository productRatingRepository;
+
+    private final ProductIndexService productIndexService;
+
+    private final ProductCacheService productCacheService;
+
     @Override
+    @Transactional
     public void addProduct(CreateUpdateProduct product) {
         Product newProduct = Product.builder()
                                     .name(product.name())
@@ -27,27 +60,58 @@ public class ProductServiceImpl implements ProductService {
                                     .price(product.price())
                                     .reviews(new ArrayList<>())
                                     .build();
-        repository.save(newProduct);
+        Product savedProduct = repository.save(newProduct);
+        productRatingRepository.insertEmpty(savedProduct.getId());
+        productIndexService.index(savedProduct);
+    }
+
+    @Override
+    public ProductPage getProducts(ProductFilter filter, ProductSort sort, String after, int limit,
+                                   boolean includeReviews) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ProductCursor cursor = after == null || after.isEmpty() ? null : ProductCursor.decode(after, sort);
+        // one extra row tells whether there is a next page without a count query
+        List<ProductSummary> products = productSearchRepository.findPage(filter, sort, cursor, pageSize + 1);
+        boolean hasNextPage = products.size() > pageSize;
+        List<ProductSummary> page = hasNextPage ? products.subList(0, pageSize) : products;
+        Map<Long, List<GetReview>> reviews = includeReviews ? findReviews(page) : Map.of();
+        return ProductPage.builder()
+                          .products(page.stream()
+                                        .map(product -> mapSummaryToGetProductDetails(product,
+                                                includeReviews ? reviews.getOrDefault(product.id(), List.of()) : null))
+                                        .toList())
+                          .nextCursor(hasNextPage ? cursorAfter(page.get(pageSize - 1), sort).encode() : null)
+                          .build();
     }
 
     @Override
-    public List<GetProductDetails> getAllProducts() {
-        return repository.findAll()
-                         .stream()
-                         .map(this::mapProductToGetProductDetails)
-                         .toList();
+    public List<ProductSearchResult> searchProducts(String query, int limit) {
+        List<InvertedIndex.Hit> hits = productIndexService.search(query, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = repository.findAllById(hits.stream()
+                                                                 .map(InvertedIndex.Hit::id)
+                                                                 .toList())
+                                                .stream()
+                                                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // in the order of the hits, products deleted by another instance are skipped
+        return hits.stream()
+                   .filter(hit -> products.containsKey(hit.id()))
+                   .map(hit -> mapProductToProductSearchResult(products.get(hit.id()), hit.score()))
+                   .toList();
     }
 
     @Override
     public GetProductDetails getProduct(Long id) {
-        return repository.findById(id)
-                         .map(this::mapProductToGetProductDetails)
-                         .orElseThrow(() -> new ResourceDoesNotExistException("Product with id " + id + " not found!"));
+        return productCacheService.get(id, this::loadProduct);
     }
 
     @Override
     public void deleteProduct(Long id) {
         repository.deleteById(id);
+        productIndexService.remove(id);
+        productCacheService.evict(id);
     }
 
     @Override
@@ -58,14 +122,89 @@ public class ProductServiceImpl implements ProductService {
         updatedProduct.setName(product.name());
         updatedProduct.setPrice(product.price());
         updatedProduct.setDescription(product.description());
-        repository.save(updatedProduct);
+        productIndexService.index(repository.save(updatedProduct));
+        productCacheService.evict(id);
+    }
+
+    private GetProductDetails loadProduct(Long id) {
+        return repository.findWithReviewsById(id)
+                         .map(product -> mapProductToGetProductDetails(product,
+                                 productRatingRepository.findById(id)
+                                                        .orElse(null)))
+                         .orElseThrow(() -> new ResourceDoesNotExistException("Product with id " + id + " not found!"));
+    }
+
+    private Map<Long, List<GetReview>> findReviews(List<ProductSummary> page) {
+        if (page.isEmpty()) {
+            return Map.of();
+        }
+        // the reviews of the whole page in one query
+        return reviewRepository.findByProductIds(page.stream()
+                                                     .map(ProductSummary::id)
+                                                     .toList())
+                               .stream()
+                               .collect(Collectors.groupingBy(ProductReview::productId,
+                                       Collectors.mapping(review -> GetReview.builder()
+                                                                             .sender(review.sender())
+                                                                             .message(review.message())
+                                                                             .numberOfStars(review.numberOfStars())
+                                                                             .build(), Collectors.toList())));
+    }
+
+    private static GetProductDetails mapSummaryToGetProductDetails(ProductSummary product, List<GetReview> reviews) {
+        return GetProductDetails.builder()
+                                .id(product.id())
+                                .name(product.name())
+                                .description(product.description())
+                                .price(product.price())
+                                .rating(mapRatingToGetRating(product.rating()))
+                                .reviews(reviews)
+                                .build();
+    }
+
+    private static ProductSearchResult mapProductToProductSearchResult(Product product, double score) {
+        return new ProductSearchResult(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), score);
+    }
+
+    private static ProductCursor cursorAfter(ProductSummary product, ProductSort sort) {
+        Object value = switch (sort) {
+            case PRICE -> product.price();
+            case NAME -> product.name();
+            case RATING -> product.rating()
+                                  .getAverageStars();
+            case NEWEST -> null;
+        };
+        return new ProductCursor(sort, value, product.id());
+    }
+
+    private static ProductRating ratingOrEmpty(ProductRating rating) {
+        // a product inserted outside this service has no rating until the repair job adds it
+        return rating == null ? new ProductRating() : rating;
+    }
+
+    private static GetRating mapRatingToGetRating(ProductRating rating) {
+        ProductRating productRating = ratingOrEmpty(rating);
+        Map<Integer, Integer> stars = new LinkedHashMap<>();
+        stars.put(1, productRating.getOneStar());
+        stars.put(2, productRating.getTwoStars());
+        stars.put(3, productRating.getThreeStars());
+        stars.put(4, productRating.getFourStars());
+        stars.put(5, productRating.getFiveStars());
+        return GetRating.builder()
+                        .reviewCount(productRating.getReviewCount())
+                        .averageStars(productRating.getAverageStars())
+                        .stars(stars)
+                        .build();
     }
 
-    private GetProductDetails mapProductToGetProductDetails(Product product) {
+    private GetProductDetails mapProductToGetProductDetails(Product product, ProductRating rating) {
         return GetProductDetails.builder()
+                                .id(product.getId())
                                 .name(product.getName())
                                 .description(product.getDescription())
                                 .price(product.getPrice())
+                                .rating(mapRatingToGetRating(rating))
                                 .reviews(product.getReviews()
                                                    .stream()
                                                    .map(review -> GetReview.builder()
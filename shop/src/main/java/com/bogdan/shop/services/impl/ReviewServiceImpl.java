@@ -7,12 +7,17 @@ import com.bogdan.shop.controllers.models.UpdateReview;
 import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
 import com.bogdan.shop.persistence.entities.Product;
 import com.bogdan.shop.persistence.entities.Review;
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
 import com.bogdan.shop.persistence.repositories.ProductRepository;
 import com.bogdan.shop.persistence.repositories.ReviewRepository;
+import com.bogdan.shop.services.ProductCacheService;
 import com.bogdan.shop.services.ReviewService;
 import com.bogdan.shop.util.exceptions.ResourceNotOwnedException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Objects;
@@ -25,7 +30,12 @@ public class ReviewServiceImpl implements ReviewService {
 
     private final ProductRepository productRepository;
 
+    private final ProductRatingRepository productRatingRepository;
+
+    private final ProductCacheService productCacheService;
+
     @Override
+    @Transactional
     public void createReview(String username, CreateReview review) {
         Product product = productRepository.getReferenceById(review.productId());
         Review save = reviewRepository.save(Review.builder()
@@ -37,6 +47,8 @@ public class ReviewServiceImpl implements ReviewService {
         product.getReviews()
                .add(save);
         productRepository.save(product);
+        productRatingRepository.changeStars(review.productId(), null, review.numberOfStars());
+        evictProduct(review.productId());
     }
 
     @Override
@@ -48,6 +60,7 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
+    @Transactional
     public void deleteReview(Long id, String user) {
         Review review = reviewRepository.findById(id)
                                         .orElseThrow(() -> new ResourceDoesNotExistException(
@@ -56,9 +69,16 @@ public class ReviewServiceImpl implements ReviewService {
             throw new ResourceNotOwnedException("User does not own this review!");
         }
         reviewRepository.delete(review);
+        if (review.getProduct() != null) {
+            productRatingRepository.changeStars(review.getProduct()
+                                                      .getId(), review.getNumberOfStars(), null);
+            evictProduct(review.getProduct()
+                               .getId());
+        }
     }
 
     @Override
+    @Transactional
     public void updateReview(UpdateReview updateReview, Long id, String user) {
         Review review = reviewRepository.findById(id)
                                         .orElseThrow(() -> new ResourceDoesNotExistException(
@@ -66,9 +86,30 @@ public class ReviewServiceImpl implements ReviewService {
         if (!Objects.equals(review.getSender(), user)) {
             throw new ResourceNotOwnedException("User does not own this review!");
         }
+        Integer previousStars = review.getNumberOfStars();
         review.setMessage(updateReview.message());
         review.setNumberOfStars(updateReview.numberOfStars());
         reviewRepository.save(review);
+        if (review.getProduct() != null) {
+            productRatingRepository.changeStars(review.getProduct()
+                                                      .getId(), previousStars, review.getNumberOfStars());
+            evictProduct(review.getProduct()
+                               .getId());
+        }
+    }
+
+    private void evictProduct(Long productId) {
+        productCacheService.evict(productId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // a load that runs before the commit still reads the old reviews, it must not stay cached
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productCacheService.evict(productId);
+            }
+        });
     }
 
     private GetReviewDetails mapReviewToGetReviewDetails(Review review) {
@@ -0,0 +1,347 @@
+package com.bogdan.shop.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with prefix matching. Every term keeps the sorted ids of the documents that contain it with
+ * their weights, and every document keeps its sorted terms, which are used to check the other query terms and to
+ * remove the document again. A search scores the posting lists of its most selective query term only and checks the
+ * other terms against the terms of each candidate, so its cost follows the smallest result set rather than the size of
+ * the index. Searches run in parallel, changes are exclusive.
+ */
+public class InvertedIndex {
+
+    // shorter query terms only match whole terms, a one or two letter prefix would match most of the index
+    public static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // rough heap cost of a tree entry, the term string header and its posting list
+    private static final int TERM_OVERHEAD_BYTES = 112;
+
+    // rough heap cost of a map entry, the boxed id, the document record and its two array headers
+    private static final int DOCUMENT_OVERHEAD_BYTES = 104;
+
+    // a term and a posting list reference in the document
+    private static final int POSTING_BYTES = 2 * Integer.BYTES;
+
+    // an id and a weight in a posting list, counted with the capacity of the posting lists
+    private static final int POSTING_CAPACITY_BYTES = Long.BYTES + Float.BYTES;
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long postingCount;
+
+    private long termCharacters;
+
+    private long postingCapacity;
+
+    /**
+     * Splits the text into lower case words of letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+                     .filter(token -> !token.isEmpty())
+                     .toList();
+    }
+
+    /**
+     * Adds the document, or replaces it if it was added before.
+     *
+     * @param termWeights how much each term counts for the document
+     */
+    public void put(long id, Map<String, Float> termWeights) {
+        lock.writeLock()
+            .lock();
+        try {
+            removeDocument(id);
+            if (termWeights.isEmpty()) {
+                return;
+            }
+            String[] terms = termWeights.keySet()
+                                        .toArray(String[]::new);
+            Arrays.sort(terms);
+            Postings[] termPostings = new Postings[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                Map.Entry<String, Postings> entry = addPosting(terms[i], id, termWeights.get(terms[i]));
+                // documents share the index's instance of the term
+                terms[i] = entry.getKey();
+                termPostings[i] = entry.getValue();
+            }
+            documents.put(id, new Document(terms, termPostings));
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock()
+            .lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Finds the documents that match every query term, either whole or, for terms of at least
+     * {@link #MIN_PREFIX_LENGTH} characters, as the prefix of one of their terms. Rare terms weigh more than common
+     * ones and whole matches more than prefix matches.
+     *
+     * @return at most {@code limit} hits, best first
+     */
+    public List<Hit> search(Collection<String> queryTerms, int limit) {
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock()
+            .lock();
+        try {
+            String mostSelective = mostSelective(queryTerms);
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            for (Map.Entry<Long, Double> candidate : candidates(mostSelective).entrySet()) {
+                long id = candidate.getKey();
+                double score = candidate.getValue();
+                for (String queryTerm : queryTerms) {
+                    if (queryTerm.equals(mostSelective)) {
+                        continue;
+                    }
+                    double termScore = documents.get(id)
+                                                .score(queryTerm, id, documents.size());
+                    if (termScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score > 0) {
+                    best.add(new Hit(id, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(Hit::score)
+                                .reversed()
+                                .thenComparingLong(Hit::id));
+            return hits;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock()
+            .lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock()
+            .lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public long estimatedSizeInBytes() {
+        lock.readLock()
+            .lock();
+        try {
+            return (long) postings.size() * TERM_OVERHEAD_BYTES + 2 * termCharacters
+                    + (long) documents.size() * DOCUMENT_OVERHEAD_BYTES + postingCount * POSTING_BYTES
+                    + postingCapacity * POSTING_CAPACITY_BYTES;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private String mostSelective(Collection<String> queryTerms) {
+        String mostSelective = null;
+        long fewestPostings = Long.MAX_VALUE;
+        for (String queryTerm : queryTerms) {
+            long count = 0;
+            for (Postings ids : matchingTerms(queryTerm).values()) {
+                count += ids.size;
+                if (count >= fewestPostings) {
+                    break;
+                }
+            }
+            if (count < fewestPostings) {
+                mostSelective = queryTerm;
+                fewestPostings = count;
+            }
+        }
+        return mostSelective;
+    }
+
+    /**
+     * Scores the documents that contain the query term straight from the posting lists, which are read in order
+     * instead of looking up every document.
+     */
+    private Map<Long, Double> candidates(String queryTerm) {
+        Map<Long, Double> candidates = new HashMap<>();
+        for (Map.Entry<String, Postings> term : matchingTerms(queryTerm).entrySet()) {
+            Postings ids = term.getValue();
+            double factor = inverseDocumentFrequency(ids, documents.size())
+                    * (term.getKey()
+                           .equals(queryTerm) ? 1 : PREFIX_MATCH_FACTOR);
+            for (int i = 0; i < ids.size; i++) {
+                candidates.merge(ids.ids[i], ids.weights[i] * factor, Math::max);
+            }
+        }
+        return candidates;
+    }
+
+    private static double inverseDocumentFrequency(Postings ids, int documentCount) {
+        return Math.log(1 + (double) documentCount / ids.size);
+    }
+
+    private NavigableMap<String, Postings> matchingTerms(String queryTerm) {
+        if (queryTerm.length() < MIN_PREFIX_LENGTH) {
+            Postings ids = postings.get(queryTerm);
+            return ids == null ? new TreeMap<>() : new TreeMap<>(Map.of(queryTerm, ids));
+        }
+        return postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+    }
+
+    private Map.Entry<String, Postings> addPosting(String term, long id, float weight) {
+        postingCount++;
+        Map.Entry<String, Postings> entry = postings.ceilingEntry(term);
+        if (entry == null || !entry.getKey()
+                                   .equals(term)) {
+            termCharacters += term.length();
+            entry = Map.entry(term, new Postings());
+            postings.put(term, entry.getValue());
+        }
+        Postings ids = entry.getValue();
+        postingCapacity -= ids.ids.length;
+        ids.add(id, weight);
+        postingCapacity += ids.ids.length;
+        return entry;
+    }
+
+    private void removeDocument(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (int i = 0; i < document.terms().length; i++) {
+            postingCount--;
+            Postings ids = document.postings()[i];
+            postingCapacity -= ids.ids.length;
+            ids.remove(id);
+            if (ids.size == 0) {
+                postings.remove(document.terms()[i]);
+                termCharacters -= document.terms()[i].length();
+                continue;
+            }
+            postingCapacity += ids.ids.length;
+        }
+    }
+
+    /**
+     * Sorted document ids with the weight of the term in each, growing like an array list. Ids are mostly added in
+     * ascending order while the index is built, which only appends.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[1];
+
+        private float[] weights = new float[1];
+
+        private int size;
+
+        private void add(long id, float weight) {
+            int position = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (size == ids.length) {
+                resize(size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            ids[position] = id;
+            weights[position] = weight;
+            size++;
+        }
+
+        private void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+            if (size < ids.length >> 2) {
+                resize(size + (size >> 1) + 1);
+            }
+        }
+
+        private float weightOf(long id) {
+            return weights[Arrays.binarySearch(ids, 0, size, id)];
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+
+    public record Hit(long id, double score) {
+    }
+
+    private record Document(String[] terms, Postings[] postings) {
+
+        private double score(String queryTerm, long id, int documentCount) {
+            int position = Arrays.binarySearch(terms, queryTerm);
+            if (position >= 0) {
+                return score(position, id, documentCount);
+            }
+            if (queryTerm.length() < MIN_PREFIX_LENGTH) {
+                return 0;
+            }
+            double best = 0;
+            for (int i = -position - 1; i < terms.length && terms[i].startsWith(queryTerm); i++) {
+                best = Math.max(best, score(i, id, documentCount) * PREFIX_MATCH_FACTOR);
+            }
+            return best;
+        }
+
+        private double score(int term, long id, int documentCount) {
+            return postings[term].weightOf(id) * inverseDocumentFrequency(postings[term], documentCount);
+        }
+    }
+}
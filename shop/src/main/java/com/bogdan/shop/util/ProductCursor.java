@@ -0,0 +1,48 @@
+package com.bogdan.shop.util;
+
+import com.bogdan.shop.controllers.models.ProductSort;
+import com.bogdan.shop.util.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the product listing: the sort value and the id of the last product of a page. The value is null for
+ * products without one and for the newest sort, where the id is the only key.
+ */
+public record ProductCursor(ProductSort sort, Object value, long id) {
+
+    public String encode() {
+        String cursor = sort.name() + ":" + id + (value == null ? "" : ":" + value);
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor, ProductSort expectedSort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder()
+                                              .decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length < 2 || ProductSort.valueOf(parts[0]) != expectedSort) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            Object value = parts.length == 3 ? parseValue(expectedSort, parts[2]) : null;
+            if (value == null && expectedSort == ProductSort.RATING) {
+                // every product has a rating, products without reviews count as 0
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return new ProductCursor(expectedSort, value, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    private static Object parseValue(ProductSort sort, String value) {
+        return switch (sort) {
+            case PRICE -> Float.parseFloat(value);
+            case NAME -> value;
+            case RATING -> Double.parseDouble(value);
+            case NEWEST -> null;
+        };
+    }
+}
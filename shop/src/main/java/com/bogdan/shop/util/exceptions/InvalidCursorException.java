@@ -0,0 +1,7 @@
+package com.bogdan.shop.util.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,6 @@
+CREATE INDEX idx_product_price ON product (price);
+
+CREATE INDEX idx_product_name ON product (name);
+
+-- lets the average rating of a product be computed from the index alone
+CREATE INDEX idx_review_product_stars ON review (product, number_of_stars);
@@ -0,0 +1,33 @@
+CREATE TABLE product_rating
+(
+    product_id    BIGINT NOT NULL,
+    review_count  INT    NOT NULL DEFAULT 0,
+    star_sum      BIGINT NOT NULL DEFAULT 0,
+    one_star      INT    NOT NULL DEFAULT 0,
+    two_stars     INT    NOT NULL DEFAULT 0,
+    three_stars   INT    NOT NULL DEFAULT 0,
+    four_stars    INT    NOT NULL DEFAULT 0,
+    five_stars    INT    NOT NULL DEFAULT 0,
+    average_stars DOUBLE AS (IF(review_count = 0, 0, star_sum / review_count)) STORED NOT NULL,
+    CONSTRAINT pk_product_rating PRIMARY KEY (product_id)
+);
+
+ALTER TABLE product_rating
+    ADD CONSTRAINT fk_product_rating_on_product FOREIGN KEY (product_id) REFERENCES product (id) ON DELETE CASCADE;
+
+-- the listing sorts by rating, newest first among equal ratings
+CREATE INDEX idx_product_rating_average ON product_rating (average_stars, product_id);
+
+INSERT INTO product_rating (product_id, review_count, star_sum, one_star, two_stars, three_stars, four_stars,
+                            five_stars)
+SELECT r.product,
+       COUNT(r.number_of_stars),
+       COALESCE(SUM(r.number_of_stars), 0),
+       SUM(r.number_of_stars <=> 1),
+       SUM(r.number_of_stars <=> 2),
+       SUM(r.number_of_stars <=> 3),
+       SUM(r.number_of_stars <=> 4),
+       SUM(r.number_of_stars <=> 5)
+FROM review r
+WHERE r.product IS NOT NULL
+GROUP BY r.product;
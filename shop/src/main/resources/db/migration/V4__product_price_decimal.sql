@@ -0,0 +1,3 @@
+-- a FLOAT price cannot hold most cents exactly: the filters and the listing cursor bind prices such as 19.99, which
+-- never equal the stored 19.9899997711, so an exact type is used instead
+ALTER TABLE product MODIFY price DECIMAL(10, 2) NULL;
@@ -0,0 +1,7 @@
+-- V3 only added ratings for products with reviews; the listing joins the ratings and reads them through
+-- idx_product_rating_average, so every product needs one
+INSERT INTO product_rating (product_id)
+SELECT p.id
+FROM product p
+         LEFT JOIN product_rating r ON r.product_id = p.id
+WHERE r.product_id IS NULL;
@@ -0,0 +1,96 @@
+package com.bogdan.shop.benchmarks;
+
+import com.bogdan.shop.util.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the search latency of {@link InvertedIndex} over a generated catalog with a skewed vocabulary, so that some
+ * terms occur in a large part of the products and most in a few.
+ * Run with {@code mvn -pl shop test-compile} followed by {@link #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY_SIZE = 50_000;
+
+    private static final int TERMS_PER_PRODUCT = 20;
+
+    @Param("300000")
+    private int products;
+
+    private InvertedIndex index;
+
+    private String commonTerm;
+
+    private String rareTerm;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new InvertedIndex();
+        for (long id = 1; id <= products; id++) {
+            Map<String, Float> termWeights = new HashMap<>();
+            for (int i = 0; i < TERMS_PER_PRODUCT; i++) {
+                termWeights.merge(term(skewed(random)), 1F, Float::sum);
+            }
+            index.put(id, termWeights);
+        }
+        commonTerm = term(0);
+        rareTerm = term(VOCABULARY_SIZE / 2);
+        System.out.printf("%d products, %d terms, about %d MB%n", index.documentCount(), index.termCount(),
+                index.estimatedSizeInBytes() / (1024 * 1024));
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> rareTerm() {
+        return index.search(List.of(rareTerm), 20);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> commonAndRareTerm() {
+        return index.search(List.of(commonTerm, rareTerm), 20);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> rarePrefix() {
+        return index.search(List.of(rareTerm.substring(0, rareTerm.length() - 1)), 20);
+    }
+
+    private static int skewed(Random random) {
+        // roughly Zipf distributed: low numbers are far more frequent
+        return (int) Math.min(VOCABULARY_SIZE - 1, Math.floor(Math.pow(VOCABULARY_SIZE, random.nextDouble())) - 1);
+    }
+
+    private static String term(int number) {
+        return "term" + Integer.toString(number, 36);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InvertedIndexBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
@@ -3,9 +3,15 @@ package com.bogdan.shop.controllers;
 import com.bogdan.shop.controllers.api.ProductController;
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.GetRating;
 import com.bogdan.shop.controllers.models.GetReview;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductSearchResult;
+import com.bogdan.shop.controllers.models.ProductSort;
 import com.bogdan.shop.integration.gateways.gatewaysuser.AuthenticationGateway;
 import com.bogdan.shop.services.ProductService;
+import com.bogdan.shop.util.exceptions.InvalidCursorException;
 import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +26,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -30,6 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -72,28 +80,91 @@ class ProductControllerTest {
     }
 
     @Test
-    void getAllProducts_serviceReturnsProductDetails_returnProductDetailsAndStatusOk() throws Exception {
+    void getProducts_filtersProvided_returnPageAndStatusOk() throws Exception {
         //Arrange
-        GetProductDetails product1 = new GetProductDetails("product1", "this is product1", 13F,
-                List.of(new GetReview("is bad", 1, "user1")));
-        GetProductDetails product2 = new GetProductDetails("product2", "this is product2", 15.5F, null);
-        List<GetProductDetails> productList = List.of(product1, product2);
-        doReturn(productList).when(service)
-                          .getAllProducts();
+        GetProductDetails product1 = new GetProductDetails(1L, "product1", "this is product1", 13F, null, null);
+        GetProductDetails product2 = new GetProductDetails(2L, "product2", "this is product2", 15.5F, null,
+                null);
+        ProductPage page = new ProductPage(List.of(product1, product2), "cursor");
+        ProductFilter filter = ProductFilter.builder()
+                                            .minPrice(10F)
+                                            .maxPrice(20F)
+                                            .namePrefix("prod")
+                                            .minRating(3.5)
+                                            .build();
+        doReturn(page).when(service)
+                      .getProducts(filter, ProductSort.PRICE, "after", 2, false);
+
+        //Act
+        ResultActions response = mvc.perform(get(BASE_URL).param("after", "after")
+                                                          .param("limit", "2")
+                                                          .param("sort", "PRICE")
+                                                          .param("minPrice", "10")
+                                                          .param("maxPrice", "20")
+                                                          .param("name", "prod")
+                                                          .param("minRating", "3.5")
+                                                          .param("reviews", "false"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(page)))
+                .andExpect(jsonPath("$.products[0].reviews").doesNotExist());
+    }
+
+    @Test
+    void getProducts_withoutParameters_requestFirstPageOfNewestWithReviews() throws Exception {
+        //Arrange
+        ProductPage page = new ProductPage(List.of(), null);
+        doReturn(page).when(service)
+                      .getProducts(ProductFilter.builder()
+                                                .build(), ProductSort.NEWEST, null, 20, true);
 
         //Act
         ResultActions response = mvc.perform(get(BASE_URL));
 
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(productList)));
+                .andExpect(content().json(objectMapper.writeValueAsString(page)));
+    }
+
+    @Test
+    void getProducts_serviceThrowsInvalidCursorException_returnStatusBadRequest() throws Exception {
+        //Arrange
+        doThrow(new InvalidCursorException("Invalid cursor")).when(service)
+                                                             .getProducts(ProductFilter.builder()
+                                                                                       .build(), ProductSort.NEWEST,
+                                                                     "broken", 20, true);
+
+        //Act
+        ResultActions response = mvc.perform(get(BASE_URL).param("after", "broken"));
+
+        //Assert
+        response.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchProducts_serviceReturnsResults_returnResultsAndStatusOk() throws Exception {
+        //Arrange
+        List<ProductSearchResult> results = List.of(new ProductSearchResult(2L, "shirt", "a red shirt", 20F, 2.5),
+                new ProductSearchResult(1L, "red shirt", "a shirt", 10F, 1.5));
+        doReturn(results).when(service)
+                         .searchProducts("red shirt", 5);
+
+        //Act
+        ResultActions response = mvc.perform(get(BASE_URL + "/search").param("q", "red shirt")
+                                                                      .param("limit", "5"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
     }
 
     @Test
     void getProduct_serviceReturnsProductDetails_returnProductDetailsAndStatusOk() throws Exception {
         //Arrange
         long productId = 1L;
-        GetProductDetails product = new GetProductDetails("product1", "this is product1", 13F,
+        GetProductDetails product = new GetProductDetails(1L, "product1", "this is product1", 13F,
+                new GetRating(1, 1.0, Map.of(1, 1, 2, 0, 3, 0, 4, 0, 5, 0)),
                 List.of(new GetReview("is bad", 1, "user1")));
         doReturn(product).when(service)
                          .getProduct(productId);
@@ -1,23 +1,39 @@
 package com.bogdan.shop.gateways.gatewaysuser;
 
+import com.bogdan.shop.integration.gateways.GatewayClientFactory;
 import com.bogdan.shop.integration.gateways.gatewaysuser.AuthenticationGateway;
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.shop.integration.gateways.gatewaysuser.UserServiceResilience;
+import com.bogdan.shop.integration.gateways.model.RevocationDelta;
+import com.bogdan.shop.integration.gateways.model.RevokedTokenEntry;
 import com.bogdan.shop.integration.gateways.model.ValidationResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.client.MockRestServiceServer;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withUnauthorizedRequest;
 
-@RestClientTest(AuthenticationGateway.class)
+@RestClientTest(value = {AuthenticationGateway.class, TokenValidationCache.class, GatewayClientFactory.class,
+        UserServiceResilience.class, TokenRevocationList.class},
+        properties = {"user-service.validation.local=false", "user-service.validation.batch.enabled=false"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class AuthenticationGatewayTest {
 
     @Autowired
@@ -26,6 +42,9 @@ class AuthenticationGatewayTest {
     @Autowired
     AuthenticationGateway gateway;
 
+    @Autowired
+    TokenRevocationList revocationList;
+
     @Autowired
     ObjectMapper mapper;
 
@@ -60,4 +79,94 @@ class AuthenticationGatewayTest {
         //Assert
         assertThat(response).isEmpty();
     }
+
+    @Test
+    void validateToken_whenUserServiceForbidsToken_returnNothingAndCacheTheRejection() {
+        //Arrange
+        String token = "token";
+        server.expect(once(), requestTo(BASE_URL + "/validate"))
+              .andRespond(withStatus(HttpStatus.FORBIDDEN));
+
+        //Act
+        gateway.validateToken(token);
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void validateToken_whenSameTokenValidatedTwice_callUserServiceOnce() throws JsonProcessingException {
+        //Arrange
+        String token = "token";
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        server.expect(once(), requestTo(BASE_URL + "/validate"))
+              .andRespond(withSuccess(mapper.writeValueAsString(validationResponse), MediaType.APPLICATION_JSON));
+
+        //Act
+        gateway.validateToken(token);
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).hasValue(validationResponse);
+        server.verify();
+    }
+
+    @Test
+    void validateToken_whenCachedTokenIsRevoked_returnNothing() throws JsonProcessingException {
+        //Arrange
+        String token = "header." + Base64.getUrlEncoder()
+                                         .withoutPadding()
+                                         .encodeToString("{\"jti\":\"token-id\"}".getBytes(StandardCharsets.UTF_8)) +
+                ".signature";
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        server.expect(once(), requestTo(BASE_URL + "/validate"))
+              .andRespond(withSuccess(mapper.writeValueAsString(validationResponse), MediaType.APPLICATION_JSON));
+        gateway.validateToken(token);
+        revocationList.addAll(List.of(new RevokedTokenEntry("token-id", System.currentTimeMillis() / 1000 + 60)), 1);
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void validateToken_whenSessionOfCachedTokenIsRevoked_returnNothing() throws JsonProcessingException {
+        //Arrange
+        String token = "header." + Base64.getUrlEncoder()
+                                         .withoutPadding()
+                                         .encodeToString("{\"jti\":\"token-id\",\"sid\":\"session-id\"}".getBytes(
+                                                 StandardCharsets.UTF_8)) + ".signature";
+        ValidationResponse validationResponse = new ValidationResponse("USER", "user");
+        server.expect(once(), requestTo(BASE_URL + "/validate"))
+              .andRespond(withSuccess(mapper.writeValueAsString(validationResponse), MediaType.APPLICATION_JSON));
+        gateway.validateToken(token);
+        revocationList.addAll(List.of(new RevokedTokenEntry("session-id", System.currentTimeMillis() / 1000 + 60)),
+                1);
+
+        //Act
+        Optional<ValidationResponse> response = gateway.validateToken(token);
+
+        //Assert
+        assertThat(response).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void getRevocations_returnDeltaFromUserService() throws JsonProcessingException {
+        //Arrange
+        RevocationDelta delta = new RevocationDelta(List.of(new RevokedTokenEntry("token-id", 1700000000L)), 8);
+        server.expect(requestTo(BASE_URL + "/revocations?after=7&limit=100"))
+              .andRespond(withSuccess(mapper.writeValueAsString(delta), MediaType.APPLICATION_JSON));
+
+        //Act
+        RevocationDelta response = gateway.getRevocations(7, 100);
+
+        //Assert
+        assertThat(response).isEqualTo(delta);
+    }
 }
@@ -0,0 +1,86 @@
+package com.bogdan.shop.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.gatewaysuser.AuthenticationGateway;
+import com.bogdan.shop.integration.gateways.gatewaysuser.RevocationListSync;
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.shop.integration.gateways.model.RevocationDelta;
+import com.bogdan.shop.integration.gateways.model.RevokedTokenEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class RevocationListSyncTest {
+
+    @Mock
+    private AuthenticationGateway gateway;
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(1000, 0.01);
+
+    private RevocationListSync sync;
+
+    @BeforeEach
+    void setUp() {
+        sync = new RevocationListSync(gateway, revocationList, 2, 1);
+    }
+
+    @Test
+    void pullRevocations_whenPageIsFull_pullNextPage() {
+        //Arrange
+        long expiresAt = System.currentTimeMillis() / 1000 + 600;
+        doReturn(new RevocationDelta(List.of(new RevokedTokenEntry("first", expiresAt),
+                new RevokedTokenEntry("second", expiresAt)), 2)).when(gateway)
+                                                                 .getRevocations(0, 2);
+        doReturn(new RevocationDelta(List.of(new RevokedTokenEntry("third", expiresAt)), 3)).when(gateway)
+                                                                                          .getRevocations(2, 2);
+
+        //Act
+        sync.pullRevocations();
+
+        //Assert
+        assertThat(revocationList.isRevoked("first")).isTrue();
+        assertThat(revocationList.isRevoked("third")).isTrue();
+        assertThat(revocationList.getCursor()).isEqualTo(3);
+    }
+
+    @Test
+    void pullRevocations_whenRevocationCommittedBehindCursor_pickItUp() {
+        //Arrange
+        long expiresAt = System.currentTimeMillis() / 1000 + 600;
+        revocationList.addAll(List.of(new RevokedTokenEntry("later", expiresAt)), 5);
+        doReturn(new RevocationDelta(List.of(new RevokedTokenEntry("earlier", expiresAt),
+                new RevokedTokenEntry("later", expiresAt)), 5)).when(gateway)
+                                                                .getRevocations(4, 2);
+        doReturn(new RevocationDelta(List.of(), 5)).when(gateway)
+                                                   .getRevocations(5, 2);
+
+        //Act
+        sync.pullRevocations();
+
+        //Assert
+        assertThat(revocationList.isRevoked("earlier")).isTrue();
+        assertThat(revocationList.getCursor()).isEqualTo(5);
+    }
+
+    @Test
+    void pullRevocations_whenUserServiceIsUnavailable_keepCursor() {
+        //Arrange
+        doThrow(new ResourceAccessException("Connection refused")).when(gateway)
+                                                                  .getRevocations(0, 2);
+
+        //Act
+        sync.pullRevocations();
+
+        //Assert
+        assertThat(revocationList.getCursor()).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bogdan.shop.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenRevocationList;
+import com.bogdan.shop.integration.gateways.model.RevokedTokenEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(1000, 0.01);
+
+    @Test
+    void isRevoked_whenTokenWasPulled_returnTrue() {
+        //Arrange
+        revocationList.addAll(List.of(new RevokedTokenEntry("revoked", secondsFromNow(600))), 4);
+
+        //Act
+        boolean revoked = revocationList.isRevoked("revoked");
+        boolean notRevoked = revocationList.isRevoked("valid");
+
+        //Assert
+        assertThat(revoked).isTrue();
+        assertThat(notRevoked).isFalse();
+        assertThat(revocationList.getCursor()).isEqualTo(4);
+    }
+
+    @Test
+    void pruneExpired_forgetTokensThatExpired() {
+        //Arrange
+        revocationList.addAll(List.of(new RevokedTokenEntry("expired", secondsFromNow(-60)),
+                new RevokedTokenEntry("revoked", secondsFromNow(600))), 2);
+
+        //Act
+        revocationList.pruneExpired();
+
+        //Assert
+        assertThat(revocationList.isRevoked("expired")).isFalse();
+        assertThat(revocationList.isRevoked("revoked")).isTrue();
+        assertThat(revocationList.getCursor()).isEqualTo(2);
+    }
+
+    @Test
+    void bindTo_reportFilterSizeAndEntries() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        revocationList.addAll(List.of(new RevokedTokenEntry("revoked", secondsFromNow(600))), 1);
+
+        //Act
+        revocationList.bindTo(registry);
+
+        //Assert
+        assertThat(registry.get("token.revocation.entries")
+                           .gauge()
+                           .value()).isEqualTo(1);
+        assertThat(registry.get("token.revocation.filter.size")
+                           .gauge()
+                           .value()).isPositive();
+        assertThat(registry.get("token.revocation.filter.false-positive-rate")
+                           .gauge()
+                           .value()).isLessThan(0.01);
+    }
+
+    private static long secondsFromNow(long seconds) {
+        return System.currentTimeMillis() / 1000 + seconds;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bogdan.shop.gateways.gatewaysuser;
+
+import com.bogdan.shop.integration.gateways.gatewaysuser.UserServiceResilience;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UserServiceResilienceTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private UserServiceResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new UserServiceResilience(50, Duration.ofSeconds(2), 50, 2, 2, Duration.ofMinutes(1), 1,
+                Duration.ZERO);
+        resilience.bindTo(registry);
+    }
+
+    @Test
+    void execute_whenCallsKeepFailing_openCircuitAndRejectFurtherCalls() {
+        //Arrange
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(ResourceAccessException.class).isThrownBy(() -> resilience.execute(() -> {
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+
+        //Act
+        assertThatExceptionOfType(CallNotPermittedException.class).isThrownBy(
+                () -> resilience.execute(() -> "not called"));
+
+        //Assert
+        assertThat(registry.get("user-service.circuitbreaker.transitions")
+                           .tag("to", "open")
+                           .functionCounter()
+                           .count()).isEqualTo(1);
+        assertThat(registry.get("user-service.calls.rejected")
+                           .tag("reason", "circuit_open")
+                           .functionCounter()
+                           .count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_whenCallSucceeds_returnResult() {
+        //Act
+        String result = resilience.execute(() -> "validated");
+
+        //Assert
+        assertThat(result).isEqualTo("validated");
+        assertThat(registry.get("user-service.calls.rejected")
+                           .tag("reason", "bulkhead_full")
+                           .functionCounter()
+                           .count()).isZero();
+    }
+}
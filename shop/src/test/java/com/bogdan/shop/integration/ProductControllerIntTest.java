@@ -1,10 +1,25 @@
 package com.bogdan.shop.integration;
 
+import com.bogdan.shop.controllers.models.CreateReview;
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.GetRating;
 import com.bogdan.shop.controllers.models.GetReview;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductSort;
 import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.persistence.entities.Review;
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
 import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.persistence.repositories.ReviewRepository;
+import com.bogdan.shop.services.ProductCacheService;
+import com.bogdan.shop.services.ProductIndexService;
+import com.bogdan.shop.services.ProductRatingService;
+import com.bogdan.shop.services.ProductService;
+import com.bogdan.shop.services.impl.ProductServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +29,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +40,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class ProductControllerIntTest extends IntTest {
@@ -30,6 +48,24 @@ class ProductControllerIntTest extends IntTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRatingRepository productRatingRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductIndexService productIndexService;
+
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
     private final String baseUrl = "http://localhost:" + port + "/api/products";
 
     private final List<Product> products = new ArrayList<>();
@@ -42,10 +78,15 @@ class ProductControllerIntTest extends IntTest {
         Product product4 = new Product(null, "product4", 50F, "this is product4", new ArrayList<>());
         products.addAll(List.of(product1, product2, product3, product4));
         productRepository.saveAll(products);
+        // the products are saved behind the product service's back, the repair job adds their ratings
+        productRatingService.repairRatings();
     }
 
     @AfterEach
     void tearDown() {
+        // the rows are deleted behind the services' back, the ids are reused by the next test
+        products.forEach(product -> productCacheService.evict(product.getId()));
+        reviewRepository.deleteAll();
         productRepository.deleteAll();
         entityManager.createNativeQuery("ALTER TABLE product AUTO_INCREMENT = 1")
                      .executeUpdate();
@@ -70,39 +111,144 @@ class ProductControllerIntTest extends IntTest {
         assertThat(savedProduct.getName()).isEqualTo(product.name());
         assertThat(savedProduct.getPrice()).isEqualTo(product.price());
         assertThat(savedProduct.getDescription()).isEqualTo(product.description());
+        assertThat(productRatingRepository.findById(savedProduct.getId())).hasValueSatisfying(
+                rating -> assertThat(rating.getReviewCount()).isZero());
     }
 
     @Test
-    void getAllProducts_responseStatusOkAndReturnProductList() throws Exception {
+    void getProducts_responseStatusOkAndReturnNewestProductsFirst() throws Exception {
         //Arrange
-        List<GetProductDetails> productDetailsList = products.stream()
-                                                             .map(product -> GetProductDetails.builder()
-                                                                                              .name(product.getName())
-                                                                                              .price(product.getPrice())
-                                                                                              .description(
-                                                                                                      product.getDescription())
-                                                                                              .reviews(
-                                                                                                      product.getReviews()
-                                                                                                             .stream()
-                                                                                                             .map(review -> GetReview.builder()
-                                                                                                                                     .sender(review.getSender())
-                                                                                                                                     .message(
-                                                                                                                                             review.getMessage())
-                                                                                                                                     .numberOfStars(
-                                                                                                                                             review.getNumberOfStars())
-                                                                                                                                     .build())
-                                                                                                             .toList())
-                                                                                              .build())
-                                                             .toList();
+        List<GetProductDetails> productDetailsList = new ArrayList<>(products.stream()
+                                                                             .map(product -> GetProductDetails.builder()
+                                                                                                              .id(product.getId())
+                                                                                                              .name(product.getName())
+                                                                                                              .price(product.getPrice())
+                                                                                                              .description(
+                                                                                                                      product.getDescription())
+                                                                                                              .reviews(List.of())
+                                                                                                              .build())
+                                                                             .toList());
+        Collections.reverse(productDetailsList);
 
         //Act
         ResultActions response = mvc.perform(get(baseUrl).header(HttpHeaders.AUTHORIZATION, generateTokenUser("user")));
 
-
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(mapper.writeValueAsString(productDetailsList)));
+                .andExpect(content().json(mapper.writeValueAsString(new ProductPage(productDetailsList, null))));
+    }
+
+    @Test
+    void getProducts_filteredAndSortedByPrice_followCursorToTheLastPage() {
+        //Arrange
+        ProductFilter filter = ProductFilter.builder()
+                                            .minPrice(12F)
+                                            .namePrefix("product")
+                                            .build();
+
+        //Act
+        ProductPage firstPage = productService.getProducts(filter, ProductSort.PRICE, null, 2, false);
+        ProductPage lastPage = productService.getProducts(filter, ProductSort.PRICE, firstPage.nextCursor(), 2,
+                false);
+
+        //Assert
+        assertThat(firstPage.products()).extracting(GetProductDetails::name)
+                                        .containsExactly("product2", "product3");
+        assertThat(firstPage.products()).allSatisfy(product -> assertThat(product.reviews()).isNull());
+        assertThat(lastPage.products()).extracting(GetProductDetails::name)
+                                       .containsExactly("product4");
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void getProducts_pricesNotExactInFloatAcrossPages_followCursorWithoutSkippingProducts() {
+        //Arrange
+        productRepository.saveAll(List.of(new Product(null, "cheap1", 9.99F, "this is cheap1", new ArrayList<>()),
+                new Product(null, "cheap2", 9.99F, "this is cheap2", new ArrayList<>()),
+                new Product(null, "cheap3", 9.99F, "this is cheap3", new ArrayList<>())));
+        productRatingService.repairRatings();
+        ProductFilter filter = ProductFilter.builder()
+                                            .minPrice(9.99F)
+                                            .maxPrice(9.99F)
+                                            .build();
+
+        //Act
+        ProductPage firstPage = productService.getProducts(filter, ProductSort.PRICE, null, 2, false);
+        ProductPage lastPage = productService.getProducts(filter, ProductSort.PRICE, firstPage.nextCursor(), 2,
+                false);
+
+        //Assert
+        assertThat(firstPage.products()).extracting(GetProductDetails::name)
+                                        .containsExactly("cheap1", "cheap2");
+        assertThat(lastPage.products()).extracting(GetProductDetails::name)
+                                       .containsExactly("cheap3");
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void getProducts_minimumRatingSortedByRating_returnRatedProductsBestFirst() {
+        //Arrange
+        reviewRepository.saveAll(List.of(new Review(null, "user1", "is ok", 3, products.get(0)),
+                new Review(null, "user1", "is good", 5, products.get(2))));
+        // the reviews are saved behind the review service's back, the repair job picks them up
+        productRatingService.repairRatings();
+
+        //Act
+        ProductPage page = productService.getProducts(ProductFilter.builder()
+                                                                   .minRating(1.0)
+                                                                   .build(), ProductSort.RATING, null, 10, true);
+
+        //Assert
+        assertThat(page.products()).extracting(GetProductDetails::name)
+                                   .containsExactly("product3", "product1");
+    }
+
+    @Test
+    void getProducts_queryCountDoesNotGrowWithTheCatalog() {
+        //Arrange
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                                             .unwrap(SessionFactory.class)
+                                             .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        addReviews(products);
+        long smallCatalogQueries = countQueries(statistics);
+        List<Product> moreProducts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            moreProducts.add(new Product(null, "more" + i, 1F, "more product " + i, new ArrayList<>()));
+        }
+        productRepository.saveAll(moreProducts);
+        productRatingService.repairRatings();
+        addReviews(moreProducts);
+
+        //Act
+        long largeCatalogQueries = countQueries(statistics);
+
+        //Assert
+        // one query for the page of products and one for their reviews
+        assertThat(smallCatalogQueries).isEqualTo(2);
+        assertThat(largeCatalogQueries).isEqualTo(smallCatalogQueries);
+    }
+
+    @Test
+    void searchProducts_productsIndexedAtRebuildAndOnCreate_responseStatusOkAndReturnMatchingProducts()
+            throws Exception {
+        //Arrange
+        productIndexService.rebuild();
+        productService.addProduct(new CreateUpdateProduct("Desk lamp", "a lamp for product3", 25F));
+
+        //Act
+        ResultActions response = mvc.perform(get(baseUrl + "/search").header(HttpHeaders.AUTHORIZATION,
+                                                                             generateTokenUser("user"))
+                                                                     .param("q", "product3"));
+        ResultActions prefixResponse = mvc.perform(get(baseUrl + "/search").header(HttpHeaders.AUTHORIZATION,
+                                                                                   generateTokenUser("user"))
+                                                                           .param("q", "LAM"));
 
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(List.of("product3", "Desk lamp")));
+        prefixResponse.andExpect(status().isOk())
+                      .andExpect(jsonPath("$[*].name").value(List.of("Desk lamp")));
     }
 
     @Test
@@ -111,6 +257,7 @@ class ProductControllerIntTest extends IntTest {
         long productId = 1L;
         Product expectedProduct = products.get(0);
         GetProductDetails productDetails = GetProductDetails.builder()
+                                                            .id(expectedProduct.getId())
                                                             .name(expectedProduct.getName())
                                                             .description(expectedProduct.getDescription())
                                                             .price(expectedProduct.getPrice())
@@ -135,6 +282,32 @@ class ProductControllerIntTest extends IntTest {
                 .andExpect(content().json(mapper.writeValueAsString(productDetails)));
     }
 
+    @Test
+    void getProduct_reviewCreatedAfterTheProductWasCached_responseStatusOkAndReturnTheNewReview() throws Exception {
+        //Arrange
+        long productId = products.get(0)
+                                 .getId();
+        productService.getProduct(productId);
+        mvc.perform(post("http://localhost:" + port + "/api/reviews").header(HttpHeaders.AUTHORIZATION,
+                                                                             generateTokenUser("user"))
+                                                                     .contentType(MediaType.APPLICATION_JSON)
+                                                                     .content(mapper.writeValueAsString(
+                                                                             new CreateReview(productId, 4,
+                                                                                     "is good"))))
+           .andExpect(status().isCreated());
+
+        //Act
+        ResultActions response = mvc.perform(
+                get(baseUrl + "/{id}", productId).header(HttpHeaders.AUTHORIZATION, generateTokenAdmin()));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(
+                        new GetProductDetails(productId, "product1", "this is product1", 10F,
+                                new GetRating(1, 4.0, Map.of(1, 0, 2, 0, 3, 0, 4, 1, 5, 0)),
+                                List.of(new GetReview("is good", 4, "user"))))));
+    }
+
     @Test
     void getProduct_productDoesNotExist_responseStatusNotFound() throws Exception {
         //Arrange
@@ -208,4 +381,24 @@ class ProductControllerIntTest extends IntTest {
         //Assert
         response.andExpect(status().isNotFound());
     }
+
+    private void addReviews(List<Product> reviewedProducts) {
+        for (Product product : reviewedProducts) {
+            reviewRepository.saveAll(List.of(new Review(null, "user1", "is good", 5, product),
+                    new Review(null, "user2", "is ok", 3, product)));
+        }
+    }
+
+    private long countQueries(Statistics statistics) {
+        // start from an empty persistence context, so that nothing is served from the first level cache
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        List<GetProductDetails> catalog = productService.getProducts(ProductFilter.builder()
+                                                                                  .build(), ProductSort.NEWEST, null,
+                                                             ProductServiceImpl.MAX_PAGE_SIZE, true)
+                                                        .products();
+        assertThat(catalog).allSatisfy(product -> assertThat(product.reviews()).hasSize(2));
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -0,0 +1,40 @@
+package com.bogdan.shop.messages;
+
+import com.bogdan.shop.integration.gateways.gatewaysuser.RevocationListSync;
+import com.bogdan.shop.integration.gateways.gatewaysuser.TokenValidationCache;
+import com.bogdan.shop.integration.messages.model.UserEvent;
+import com.bogdan.shop.integration.messages.receiver.UserEventReceiver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventReceiverTest {
+
+    @Mock
+    private TokenValidationCache tokenValidationCache;
+
+    @Mock
+    private RevocationListSync revocationListSync;
+
+    @InjectMocks
+    private UserEventReceiver receiver;
+
+    @Test
+    void consumeUserEvent() {
+        //Arrange
+        UserEvent event = new UserEvent("user", "renamed");
+
+        //Act
+        receiver.consumeUserEvent(event);
+
+        //Assert
+        verify(tokenValidationCache, times(1)).evictUser("user");
+        verify(revocationListSync, times(1)).pullRevocations();
+    }
+}
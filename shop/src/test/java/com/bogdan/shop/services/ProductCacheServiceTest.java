@@ -0,0 +1,159 @@
+package com.bogdan.shop.services;
+
+import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.services.impl.ProductCacheServiceImpl;
+import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ProductCacheServiceTest {
+
+    private final GetProductDetails product = new GetProductDetails(1L, "product", "this is product", 15F, null,
+            List.of());
+
+    private ProductCacheServiceImpl productCacheService;
+
+    @BeforeEach
+    void setUp() {
+        productCacheService = new ProductCacheServiceImpl(100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void get_productLoadedBefore_returnCachedProductWithoutLoading() {
+        //Arrange
+        AtomicInteger loads = new AtomicInteger();
+        productCacheService.get(1L, id -> {
+            loads.incrementAndGet();
+            return product;
+        });
+
+        //Act
+        GetProductDetails cached = productCacheService.get(1L, id -> {
+            loads.incrementAndGet();
+            return product;
+        });
+
+        //Assert
+        Assertions.assertThat(cached)
+                  .isEqualTo(product);
+        Assertions.assertThat(loads)
+                  .hasValue(1);
+    }
+
+    @Test
+    void get_concurrentMisses_loadProductOnce() throws Exception {
+        //Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<GetProductDetails> first = CompletableFuture.supplyAsync(
+                () -> productCacheService.get(1L, id -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return product;
+                }));
+        Assertions.assertThat(loading.await(5, TimeUnit.SECONDS))
+                  .isTrue();
+
+        //Act
+        CompletableFuture<GetProductDetails> second = CompletableFuture.supplyAsync(
+                () -> productCacheService.get(1L, id -> {
+                    loads.incrementAndGet();
+                    return product;
+                }));
+        release.countDown();
+
+        //Assert
+        Assertions.assertThat(first.get(5, TimeUnit.SECONDS))
+                  .isEqualTo(product);
+        Assertions.assertThat(second.get(5, TimeUnit.SECONDS))
+                  .isEqualTo(product);
+        Assertions.assertThat(loads)
+                  .hasValue(1);
+    }
+
+    @Test
+    void get_loadFails_throwAndLoadAgainOnTheNextRequest() {
+        //Arrange
+        Throwable failure = Assertions.catchThrowable(() -> productCacheService.get(1L, id -> {
+            throw new ResourceDoesNotExistException("Product with id " + id + " not found!");
+        }));
+
+        //Act
+        GetProductDetails loaded = productCacheService.get(1L, id -> product);
+
+        //Assert
+        Assertions.assertThat(failure)
+                  .isInstanceOf(ResourceDoesNotExistException.class);
+        Assertions.assertThat(loaded)
+                  .isEqualTo(product);
+    }
+
+    @Test
+    void evict_productCached_loadProductAgain() {
+        //Arrange
+        GetProductDetails updated = new GetProductDetails(1L, "updated", "this is product", 20F, null, List.of());
+        productCacheService.get(1L, id -> product);
+
+        //Act
+        productCacheService.evict(1L);
+
+        //Assert
+        Assertions.assertThat(productCacheService.get(1L, id -> updated))
+                  .isEqualTo(updated);
+    }
+
+    @Test
+    void evict_whileLoading_doNotCacheTheLoadedProduct() {
+        //Arrange
+        GetProductDetails updated = new GetProductDetails(1L, "updated", "this is product", 20F, null, List.of());
+
+        //Act
+        productCacheService.get(1L, id -> {
+            // the product is changed after it was read
+            productCacheService.evict(1L);
+            return product;
+        });
+
+        //Assert
+        Assertions.assertThat(productCacheService.get(1L, id -> updated))
+                  .isEqualTo(updated);
+    }
+
+    @Test
+    void bindTo_hitAndMiss_reportHitRatio() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productCacheService.bindTo(registry);
+        productCacheService.get(1L, id -> product);
+
+        //Act
+        productCacheService.get(1L, id -> product);
+
+        //Assert
+        Assertions.assertThat(registry.get("cache.hit.ratio")
+                                      .tag("cache", "product-details")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(0.5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.bogdan.shop.services;
+
+import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.services.impl.ProductIndexServiceImpl;
+import com.bogdan.shop.util.InvertedIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexServiceTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    private ProductIndexServiceImpl productIndexService;
+
+    @BeforeEach
+    void setUp() {
+        productIndexService = new ProductIndexServiceImpl(repository, 2);
+    }
+
+    @Test
+    void rebuild_productsOnSeveralPages_indexAllProducts() {
+        //Arrange
+        PageRequest page = PageRequest.ofSize(2);
+        doReturn(List.of(product(1L, "Red shirt", "Cotton"), product(2L, "Blue shirt", "Linen"))).when(repository)
+                                                                                               .findPageAfter(0L, page);
+        doReturn(List.of(product(5L, "Red scarf", "Wool"))).when(repository)
+                                                           .findPageAfter(2L, page);
+
+        //Act
+        productIndexService.rebuild();
+
+        //Assert
+        Assertions.assertThat(ids(productIndexService.search("red", 10)))
+                  .containsExactlyInAnyOrder(1L, 5L);
+        Assertions.assertThat(ids(productIndexService.search("shirt", 10)))
+                  .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void rebuild_repositoryFails_keepPreviousIndex() {
+        //Arrange
+        productIndexService.index(product(1L, "Red shirt", "Cotton"));
+        doThrow(new IllegalStateException("Connection refused")).when(repository)
+                                                                .findPageAfter(0L, PageRequest.ofSize(2));
+
+        //Act
+        productIndexService.rebuild();
+
+        //Assert
+        Assertions.assertThat(ids(productIndexService.search("red", 10)))
+                  .containsExactly(1L);
+    }
+
+    @Test
+    void search_termsAndPrefixes_returnProductsMatchingAllTermsRankedByRelevance() {
+        //Arrange
+        productIndexService.index(product(1L, "Running shoes", "Light shoes for road running"));
+        productIndexService.index(product(2L, "Walking shoes", "Comfortable shoes, good for running errands"));
+        productIndexService.index(product(3L, "Running shorts", "Breathable"));
+
+        //Act
+        List<InvertedIndex.Hit> hits = productIndexService.search("RUN shoe", 10);
+
+        //Assert
+        Assertions.assertThat(ids(hits))
+                  .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_exactTermAndPrefix_rankExactTermFirst() {
+        //Arrange
+        productIndexService.index(product(1L, "Cable organizer", ""));
+        productIndexService.index(product(2L, "Cab", ""));
+
+        //Act
+        List<InvertedIndex.Hit> hits = productIndexService.search("cab", 10);
+
+        //Assert
+        Assertions.assertThat(ids(hits))
+                  .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void search_shortTerm_matchOnlyWholeTerms() {
+        //Arrange
+        productIndexService.index(product(1L, "TV stand", ""));
+        productIndexService.index(product(2L, "Tvrdik knife", ""));
+
+        //Act
+        List<InvertedIndex.Hit> hits = productIndexService.search("tv", 10);
+
+        //Assert
+        Assertions.assertThat(ids(hits))
+                  .containsExactly(1L);
+    }
+
+    @Test
+    void search_moreHitsThanTheLimit_returnBestHits() {
+        //Arrange
+        productIndexService.index(product(1L, "Lamp", "desk lamp"));
+        productIndexService.index(product(2L, "Lamp", ""));
+        productIndexService.index(product(3L, "Desk", "with a lamp"));
+
+        //Act
+        List<InvertedIndex.Hit> hits = productIndexService.search("lamp", 2);
+
+        //Assert
+        Assertions.assertThat(ids(hits))
+                  .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void index_productUpdatedAndRemoved_searchReflectsTheChanges() {
+        //Arrange
+        productIndexService.index(product(1L, "Red shirt", "Cotton"));
+
+        //Act
+        productIndexService.index(product(1L, "Blue shirt", "Cotton"));
+        List<InvertedIndex.Hit> afterUpdate = productIndexService.search("red", 10);
+        productIndexService.remove(1L);
+        List<InvertedIndex.Hit> afterRemove = productIndexService.search("shirt", 10);
+
+        //Assert
+        Assertions.assertThat(afterUpdate)
+                  .isEmpty();
+        Assertions.assertThat(afterRemove)
+                  .isEmpty();
+    }
+
+    @Test
+    void bindTo_productsIndexed_reportIndexSize() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productIndexService.index(product(1L, "Red shirt", "Cotton"));
+
+        //Act
+        productIndexService.bindTo(registry);
+
+        //Assert
+        Assertions.assertThat(registry.get("product.search.index.documents")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(1);
+        Assertions.assertThat(registry.get("product.search.index.terms")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(3);
+        Assertions.assertThat(registry.get("product.search.index.size")
+                                      .gauge()
+                                      .value())
+                  .isPositive();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return Product.builder()
+                      .id(id)
+                      .name(name)
+                      .description(description)
+                      .price(10F)
+                      .build();
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream()
+                   .map(InvertedIndex.Hit::id)
+                   .toList();
+    }
+}
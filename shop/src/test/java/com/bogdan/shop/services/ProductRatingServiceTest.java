@@ -0,0 +1,67 @@
+package com.bogdan.shop.services;
+
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
+import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.services.impl.ProductRatingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRatingServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+
+    private ProductRatingServiceImpl productRatingService;
+
+    @BeforeEach
+    void setUp() {
+        productRatingService = new ProductRatingServiceImpl(productRepository, productRatingRepository, 1000);
+    }
+
+    @Test
+    void repairRatings_productsOnSeveralRanges_recomputeEveryRange() {
+        //Arrange
+        doReturn(2500L).when(productRepository)
+                       .findMaxId();
+
+        //Act
+        productRatingService.repairRatings();
+
+        //Assert
+        InOrder ranges = inOrder(productRatingRepository);
+        ranges.verify(productRatingRepository)
+              .recompute(0, 1000);
+        ranges.verify(productRatingRepository)
+              .recompute(1000, 2000);
+        ranges.verify(productRatingRepository)
+              .recompute(2000, 2500);
+        ranges.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void repairRatings_noProducts_recomputeNothing() {
+        //Arrange
+        doReturn(0L).when(productRepository)
+                    .findMaxId();
+
+        //Act
+        productRatingService.repairRatings();
+
+        //Assert
+        verify(productRatingRepository, never()).recompute(anyLong(), anyLong());
+    }
+}
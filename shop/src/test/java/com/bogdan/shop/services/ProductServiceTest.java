@@ -2,11 +2,25 @@ package com.bogdan.shop.services;
 
 import com.bogdan.shop.controllers.models.CreateUpdateProduct;
 import com.bogdan.shop.controllers.models.GetProductDetails;
+import com.bogdan.shop.controllers.models.GetRating;
 import com.bogdan.shop.controllers.models.GetReview;
+import com.bogdan.shop.controllers.models.ProductFilter;
+import com.bogdan.shop.controllers.models.ProductPage;
+import com.bogdan.shop.controllers.models.ProductReview;
+import com.bogdan.shop.controllers.models.ProductSearchResult;
+import com.bogdan.shop.controllers.models.ProductSort;
+import com.bogdan.shop.controllers.models.ProductSummary;
 import com.bogdan.shop.persistence.entities.Product;
+import com.bogdan.shop.persistence.entities.ProductRating;
 import com.bogdan.shop.persistence.entities.Review;
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
 import com.bogdan.shop.persistence.repositories.ProductRepository;
+import com.bogdan.shop.persistence.repositories.ProductSearchRepository;
+import com.bogdan.shop.persistence.repositories.ReviewRepository;
 import com.bogdan.shop.services.impl.ProductServiceImpl;
+import com.bogdan.shop.util.InvertedIndex;
+import com.bogdan.shop.util.ProductCursor;
+import com.bogdan.shop.util.exceptions.InvalidCursorException;
 import com.bogdan.shop.util.exceptions.ResourceDoesNotExistException;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -17,11 +31,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceTest {
@@ -29,6 +49,21 @@ class ProductServiceTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ProductSearchRepository productSearchRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+
+    @Mock
+    private ProductIndexService productIndexService;
+
+    @Mock
+    private ProductCacheService productCacheService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -36,62 +71,188 @@ class ProductServiceTest {
     void addProduct() {
         //Arrange
         CreateUpdateProduct createProduct = new CreateUpdateProduct("product", "description", 15.4F);
+        Product newProduct = new Product(null, createProduct.name(), createProduct.price(),
+                createProduct.description(), new ArrayList<>());
+        Product savedProduct = new Product(1L, createProduct.name(), createProduct.price(),
+                createProduct.description(), new ArrayList<>());
+        doReturn(savedProduct).when(repository)
+                              .save(newProduct);
 
         //Act
         productService.addProduct(createProduct);
 
         //Assert
-        verify(repository, times(1)).save(
-                new Product(null, createProduct.name(), createProduct.price(), createProduct.description(),
-                        new ArrayList<>()));
+        verify(repository, times(1)).save(newProduct);
+        verify(productRatingRepository, times(1)).insertEmpty(savedProduct.getId());
+        verify(productIndexService, times(1)).index(savedProduct);
     }
 
     @Test
-    void getAllProducts_repositoryReturnsListOfProducts_returnProductsDetails() {
+    void getProducts_moreProductsThanTheLimit_returnPageWithReviewsAndNextCursor() {
         //Arrange
-        Product product1 = new Product(1L, "product 1", 30.5F, "this is product1",
-                List.of(new Review(1L, "user1", "is good", 5, null)));
-        Product product2 = new Product(2L, "product2", 50F, "this is product2",
-                List.of(new Review(2L, "user1", "is Ok", 3, null)));
+        ProductFilter filter = ProductFilter.builder()
+                                            .minPrice(10F)
+                                            .build();
+        ProductSummary product1 = new ProductSummary(1L, "product1", "this is product1", 10F,
+                new ProductRating(1L, 1, 5, 0, 0, 0, 0, 1, 5.0));
+        ProductSummary product2 = new ProductSummary(2L, "product2", "this is product2", 20F, null);
+        ProductSummary product3 = new ProductSummary(3L, "product3", "this is product3", 30F, null);
+        doReturn(List.of(product1, product2, product3)).when(productSearchRepository)
+                                                       .findPage(filter, ProductSort.PRICE, null, 3);
+        doReturn(List.of(new ProductReview(1L, "user1", "is good", 5))).when(reviewRepository)
+                                                                      .findByProductIds(List.of(1L, 2L));
+
+        //Act
+        ProductPage page = productService.getProducts(filter, ProductSort.PRICE, null, 2, true);
+
+        //Assert
+        Assertions.assertThat(page.products())
+                  .containsExactly(new GetProductDetails(1L, "product1", "this is product1", 10F,
+                                  rating(1, 5.0, 0, 0, 0, 0, 1), List.of(new GetReview("is good", 5, "user1"))),
+                          new GetProductDetails(2L, "product2", "this is product2", 20F, rating(0, 0.0, 0, 0, 0, 0, 0),
+                                  List.of()));
+        Assertions.assertThat(ProductCursor.decode(page.nextCursor(), ProductSort.PRICE))
+                  .isEqualTo(new ProductCursor(ProductSort.PRICE, 20F, 2L));
+    }
+
+    @Test
+    void getProducts_lastPageWithoutReviews_returnPageWithoutCursorAndDoNotLoadReviews() {
+        //Arrange
+        ProductFilter filter = ProductFilter.builder()
+                                            .build();
+        ProductCursor cursor = new ProductCursor(ProductSort.NAME, "product1", 1L);
+        ProductSummary product = new ProductSummary(2L, "product2", "this is product2", 20F, null);
+        doReturn(List.of(product)).when(productSearchRepository)
+                                  .findPage(filter, ProductSort.NAME, cursor, 3);
+
+        //Act
+        ProductPage page = productService.getProducts(filter, ProductSort.NAME, cursor.encode(), 2, false);
+
+        //Assert
+        Assertions.assertThat(page.products())
+                  .containsExactly(new GetProductDetails(2L, "product2", "this is product2", 20F,
+                          rating(0, 0.0, 0, 0, 0, 0, 0), null));
+        Assertions.assertThat(page.nextCursor())
+                  .isNull();
+        verifyNoInteractions(reviewRepository);
+    }
+
+    @Test
+    void getProducts_sortedByRating_returnCursorWithTheAverageStarsOfTheLastProduct() {
+        //Arrange
+        ProductFilter filter = ProductFilter.builder()
+                                            .build();
+        ProductSummary product1 = new ProductSummary(1L, "product1", "this is product1", 10F,
+                new ProductRating(1L, 3, 11, 0, 0, 1, 1, 1, 3.6667));
+        ProductSummary product2 = new ProductSummary(2L, "product2", "this is product2", 20F, null);
+        doReturn(List.of(product1, product2)).when(productSearchRepository)
+                                             .findPage(filter, ProductSort.RATING, null, 2);
+
+        //Act
+        ProductPage page = productService.getProducts(filter, ProductSort.RATING, null, 1, false);
+
+        //Assert
+        Assertions.assertThat(page.products())
+                  .containsExactly(new GetProductDetails(1L, "product1", "this is product1", 10F,
+                          rating(3, 3.6667, 0, 0, 1, 1, 1), null));
+        Assertions.assertThat(ProductCursor.decode(page.nextCursor(), ProductSort.RATING))
+                  .isEqualTo(new ProductCursor(ProductSort.RATING, 3.6667, 1L));
+    }
+
+    @Test
+    void getProducts_cursorOfAnotherSort_throwInvalidCursorException() {
+        //Arrange
+        String cursor = new ProductCursor(ProductSort.NEWEST, null, 1L).encode();
+
+        //Assert
+        Assertions.assertThatExceptionOfType(InvalidCursorException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      productService.getProducts(ProductFilter.builder()
+                                                              .build(), ProductSort.PRICE, cursor, 2, true);
+                  });
+        verifyNoInteractions(productSearchRepository);
+    }
+
+    @Test
+    void searchProducts_indexReturnsHits_returnProductsInTheOrderOfTheHits() {
+        //Arrange
+        Product product1 = new Product(1L, "red shirt", 10F, "a shirt", List.of());
+        Product product2 = new Product(2L, "shirt", 20F, "a red shirt", List.of());
+        doReturn(List.of(new InvertedIndex.Hit(2L, 2.5), new InvertedIndex.Hit(3L, 2.0),
+                new InvertedIndex.Hit(1L, 1.5))).when(productIndexService)
+                                                .search("red shirt", 10);
         doReturn(List.of(product1, product2)).when(repository)
-                                             .findAll();
+                                             .findAllById(List.of(2L, 3L, 1L));
 
         //Act
-        List<GetProductDetails> actualList = productService.getAllProducts();
+        List<ProductSearchResult> results = productService.searchProducts("red shirt", 10);
 
         //Assert
-        Assertions.assertThat(actualList)
-                  .hasSize(2)
-                  .isNotNull();
-        Assertions.assertThat(actualList.get(0))
-                  .isEqualTo(mapProductToGetProductDetails(product1));
-        Assertions.assertThat(actualList.get(1))
-                  .isEqualTo(mapProductToGetProductDetails(product2));
+        Assertions.assertThat(results)
+                  .containsExactly(new ProductSearchResult(2L, "shirt", "a red shirt", 20F, 2.5),
+                          new ProductSearchResult(1L, "red shirt", "a shirt", 10F, 1.5));
+    }
+
+    @Test
+    void searchProducts_indexReturnsNoHits_returnEmptyListWithoutQueryingProducts() {
+        //Arrange
+        doReturn(List.of()).when(productIndexService)
+                           .search("nothing", 10);
+
+        //Act
+        List<ProductSearchResult> results = productService.searchProducts("nothing", 10);
+
+        //Assert
+        Assertions.assertThat(results)
+                  .isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getProduct_productCached_returnCachedProductDetails() {
+        //Arrange
+        GetProductDetails product = new GetProductDetails(1L, "product 1", "this is product1", 30.5F,
+                rating(0, 0.0, 0, 0, 0, 0, 0), List.of());
+        doReturn(product).when(productCacheService)
+                         .get(eq(1L), any());
+
+        //Act
+        GetProductDetails actualProduct = productService.getProduct(1L);
+
+        //Assert
+        Assertions.assertThat(actualProduct)
+                  .isEqualTo(product);
+        verifyNoInteractions(repository);
     }
 
     @Test
     void getProduct_repositoryReturnsProduct_returnProductDetails() {
         //Arrange
+        loadThroughCache();
         Long productId = 1L;
         Product product = new Product(1L, "product 1", 30.5F, "this is product1",
                 List.of(new Review(1L, "user1", "is good", 5, null)));
         doReturn(Optional.of(product)).when(repository)
-                                      .findById(productId);
+                                      .findWithReviewsById(productId);
+        doReturn(Optional.of(new ProductRating(productId, 1, 5, 0, 0, 0, 0, 1, 5.0))).when(productRatingRepository)
+                                                                                    .findById(productId);
 
         //Act
         GetProductDetails actualProduct = productService.getProduct(productId);
 
         //Assert
         Assertions.assertThat(actualProduct)
-                  .isEqualTo(mapProductToGetProductDetails(product));
+                  .isEqualTo(mapProductToGetProductDetails(product, rating(1, 5.0, 0, 0, 0, 0, 1)));
     }
 
     @Test
     void getProduct_repositoryReturnsEmptyOptional_throwsResourceDoesNotExistException() {
         //Arrange
+        loadThroughCache();
         Long productId = 99L;
         doReturn(Optional.empty()).when(repository)
-                                  .findById(productId);
+                                  .findWithReviewsById(productId);
 
         //Assert
         Assertions.assertThatExceptionOfType(ResourceDoesNotExistException.class)
@@ -112,6 +273,8 @@ class ProductServiceTest {
 
         //Assert
         verify(repository, times(1)).deleteById(productId);
+        verify(productIndexService, times(1)).remove(productId);
+        verify(productCacheService, times(1)).evict(productId);
     }
 
     @Test
@@ -122,16 +285,20 @@ class ProductServiceTest {
         Product product = new Product(productId, "product", 30.5F, "this is product",
                 List.of(new Review(1L, "user1", "is good", 5, null)));
 
+        Product savedProduct = new Product(productId, updatedProduct.name(), updatedProduct.price(),
+                updatedProduct.description(), product.getReviews());
         doReturn(Optional.of(product)).when(repository)
                                       .findById(productId);
+        doReturn(savedProduct).when(repository)
+                              .save(savedProduct);
 
         //Act
         productService.updateProduct(productId, updatedProduct);
 
         //Assert
-        verify(repository, times(1)).save(
-                new Product(productId, updatedProduct.name(), updatedProduct.price(), updatedProduct.description(),
-                        product.getReviews()));
+        verify(repository, times(1)).save(savedProduct);
+        verify(productIndexService, times(1)).index(savedProduct);
+        verify(productCacheService, times(1)).evict(productId);
     }
 
     @Test
@@ -151,11 +318,26 @@ class ProductServiceTest {
                   .withMessage("Product with id " + productId + " not found!");
     }
 
-    private GetProductDetails mapProductToGetProductDetails(Product product) {
+    @SuppressWarnings("unchecked")
+    private void loadThroughCache() {
+        doAnswer(invocation -> invocation.getArgument(1, Function.class)
+                                         .apply(invocation.getArgument(0))).when(productCacheService)
+                                                                           .get(any(), any());
+    }
+
+    private static GetRating rating(int reviewCount, double averageStars, int oneStar, int twoStars, int threeStars,
+                                    int fourStars, int fiveStars) {
+        return new GetRating(reviewCount, averageStars,
+                Map.of(1, oneStar, 2, twoStars, 3, threeStars, 4, fourStars, 5, fiveStars));
+    }
+
+    private GetProductDetails mapProductToGetProductDetails(Product product, GetRating rating) {
         return GetProductDetails.builder()
+                                .id(product.getId())
                                 .name(product.getName())
                                 .description(product.getDescription())
                                 .price(product.getPrice())
+                                .rating(rating)
                                 .reviews(product.getReviews()
                                                 .stream()
                                                 .map(review -> GetReview.builder()
@@ -6,6 +6,7 @@ import com.bogdan.shop.controllers.models.GetReviewDetails;
 import com.bogdan.shop.controllers.models.UpdateReview;
 import com.bogdan.shop.persistence.entities.Product;
 import com.bogdan.shop.persistence.entities.Review;
+import com.bogdan.shop.persistence.repositories.ProductRatingRepository;
 import com.bogdan.shop.persistence.repositories.ProductRepository;
 import com.bogdan.shop.persistence.repositories.ReviewRepository;
 import com.bogdan.shop.services.impl.ReviewServiceImpl;
@@ -36,6 +37,12 @@ class ReviewServiceTest {
     @Mock
     ProductRepository productRepository;
 
+    @Mock
+    ProductRatingRepository productRatingRepository;
+
+    @Mock
+    ProductCacheService productCacheService;
+
     @InjectMocks
     ReviewServiceImpl service;
 
@@ -59,6 +66,8 @@ class ReviewServiceTest {
 
         //Assert
         verify(productRepository, times(1)).save(product);
+        verify(productRatingRepository, times(1)).changeStars(createReview.productId(), null, 3);
+        verify(productCacheService, times(1)).evict(createReview.productId());
     }
 
     @Test
@@ -89,7 +98,8 @@ class ReviewServiceTest {
         //Arrange
         Long reviewId = 1L;
         String user = "user";
-        Review review = new Review(reviewId, user, "is good", 5, null);
+        Product product = new Product(7L, "product", 15F, "this is product", new ArrayList<>());
+        Review review = new Review(reviewId, user, "is good", 5, product);
         doReturn(Optional.of(review)).when(reviewRepository)
                                      .findById(reviewId);
 
@@ -98,6 +108,8 @@ class ReviewServiceTest {
 
         //Assert
         verify(reviewRepository, times(1)).delete(review);
+        verify(productRatingRepository, times(1)).changeStars(product.getId(), 5, null);
+        verify(productCacheService, times(1)).evict(product.getId());
     }
 
     @Test
@@ -139,7 +151,8 @@ class ReviewServiceTest {
         Long reviewId = 1L;
         String user = "user";
         UpdateReview updateReview = new UpdateReview("new message", 0);
-        Review review = new Review(1L, user, "", 0, null);
+        Product product = new Product(7L, "product", 15F, "this is product", new ArrayList<>());
+        Review review = new Review(1L, user, "", 2, product);
         doReturn(Optional.of(review)).when(reviewRepository)
                                      .findById(reviewId);
 
@@ -150,6 +163,8 @@ class ReviewServiceTest {
         verify(reviewRepository, times(1)).save(
                 new Review(review.getId(), review.getSender(), updateReview.message(), updateReview.numberOfStars(),
                         review.getProduct()));
+        verify(productRatingRepository, times(1)).changeStars(product.getId(), 2, 0);
+        verify(productCacheService, times(1)).evict(product.getId());
     }
 
     @Test
@@ -1,16 +1,19 @@
 package com.bogdan.user.config;
 
+import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.UserDetailsCacheService;
+import com.bogdan.user.utils.PasswordEncoders;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -19,17 +22,30 @@ public class ApplicationConfig {
 
     private final UserRepository userRepository;
 
+    private final UserDetailsCacheService userDetailsCacheService;
+
+    /**
+     * Stores the new hash when a user logs in with a password hashed under an older policy. The user did not change,
+     * so no event is published; other instances that still cache the old hash keep accepting the same password.
+     */
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
-                                         .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            User user = userRepository.findByUsername(userDetails.getUsername())
+                                      .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            user.setPassword(newPassword);
+            User savedUser = userRepository.save(user);
+            userDetailsCacheService.evict(savedUser.getUsername());
+            return savedUser;
+        };
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsService(userDetailsCacheService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
@@ -39,7 +55,14 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password-hashing.algorithm:bcrypt}") String algorithm,
+                                           @Value("${password-hashing.bcrypt.strength:10}") int bcryptStrength,
+                                           @Value("${password-hashing.argon2.memory:19456}") int argon2Memory,
+                                           @Value("${password-hashing.argon2.iterations:2}") int argon2Iterations,
+                                           @Value("${password-hashing.argon2.parallelism:1}") int argon2Parallelism,
+                                           @Value("${password-hashing.pbkdf2.iterations:600000}") int pbkdf2Rounds) {
+        return PasswordEncoders.delegating(algorithm, PasswordEncoders.bcrypt(bcryptStrength),
+                PasswordEncoders.argon2(argon2Memory, argon2Iterations, argon2Parallelism),
+                PasswordEncoders.pbkdf2(pbkdf2Rounds));
     }
 }
@@ -1,12 +1,16 @@
 package com.bogdan.user.config;
 
+import com.bogdan.user.service.AuthenticationCacheService;
 import com.bogdan.user.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,11 +18,13 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -29,36 +35,70 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
 
+    private final AuthenticationCacheService authenticationCacheService;
+
+    @Value("${jwt.validation.load-user:false}")
+    private boolean loadUser;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         final String token;
-        final String username;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         token = authHeader.substring(7);
-        username = jwtService.extractUsername(token);
-        if (username != null && SecurityContextHolder.getContext()
-                                                     .getAuthentication() == null) {
-
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, userDetails)) {
+        if (SecurityContextHolder.getContext()
+                                 .getAuthentication() == null) {
+            Optional<UserDetails> isUserDetails = resolveUserDetails(token);
+            if (isUserDetails.isPresent()) {
+                UserDetails userDetails = isUserDetails.get();
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
                         null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext()
                                      .setAuthentication(authToken);
-                log.info("User logged with credentials: username ({}), role ({})", username,
+                log.info("User logged with credentials: username ({}), role ({})", userDetails.getUsername(),
                         userDetails.getAuthorities()
                                    .stream()
                                    .map(GrantedAuthority::getAuthority)
                                    .findAny()
-                                   .get());
+                                   .orElse(null));
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private Optional<UserDetails> resolveUserDetails(String token) {
+        Optional<UserDetails> cachedUser = authenticationCacheService.get(token);
+        if (cachedUser.isPresent()) {
+            return cachedUser;
+        }
+        try {
+            Claims claims = jwtService.verifyToken(token);
+            UserDetails user = loadUser(jwtService.extractUserDetails(claims));
+            if (user != null) {
+                authenticationCacheService.put(token, claims.getId(), claims.getExpiration(), user);
+            }
+            return Optional.ofNullable(user);
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private UserDetails loadUser(UserDetails tokenUser) {
+        if (!loadUser) {
+            // the token is signed by us and carries the role, so no database round trip is needed
+            return tokenUser;
+        }
+        UserDetails storedUser = userDetailsService.loadUserByUsername(tokenUser.getUsername());
+        if (!storedUser.getAuthorities()
+                       .equals(tokenUser.getAuthorities())) {
+            return null;
+        }
+        return storedUser;
+    }
 }
@@ -0,0 +1,67 @@
+package com.bogdan.user.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+@Configuration
+public class RabbitMQConfig {
+
+    @Value("${rabbitmq.name.user-events-exchange}")
+    private String userEventsExchange;
+
+    @Value("${rabbitmq.routing.user-events-key}")
+    private String userEventsKey;
+
+    @Value("${user-events.batch-size:100}")
+    private int batchSize;
+
+    @Bean
+    public TopicExchange userEventsExchange() {
+        return new TopicExchange(userEventsExchange);
+    }
+
+    /**
+     * Every instance binds its own auto-deleted queue, so that all of them evict their caches on a change.
+     */
+    @Bean
+    public Queue userEventsQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(userEventsExchange + "."));
+    }
+
+    @Bean
+    public Binding userEventsBinding() {
+        return BindingBuilder.bind(userEventsQueue())
+                             .to(userEventsExchange())
+                             .with(userEventsKey);
+    }
+
+    @Bean
+    public MessageConverter converter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * Packs the events sent with the same routing key into one message, the listener containers split them again.
+     */
+    @Bean
+    public BatchingRabbitTemplate batchingRabbitTemplate(ConnectionFactory connectionFactory,
+                                                         TaskScheduler taskScheduler) {
+        BatchingRabbitTemplate rabbitTemplate = new BatchingRabbitTemplate(connectionFactory,
+                new SimpleBatchingStrategy(batchSize, 64 * 1024, 1000), taskScheduler);
+        rabbitTemplate.setMessageConverter(converter());
+        return rabbitTemplate;
+    }
+}
@@ -1,43 +1,64 @@
 package com.bogdan.user.controllers.api;
 
+import com.bogdan.user.controllers.models.BatchValidationRequest;
 import com.bogdan.user.controllers.models.LoginRequest;
 import com.bogdan.user.controllers.models.LoginResponse;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.TokenValidationResult;
 import com.bogdan.user.controllers.models.ValidationResponse;
 import com.bogdan.user.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/authentications")
 @RequiredArgsConstructor
 public class AuthenticationController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthenticationService authenticationService;
 
     @PostMapping("/register-user")
     @ResponseStatus(HttpStatus.CREATED)
-    public void registerNewUser(@RequestBody RegisterRequest registerRequest) {
-        authenticationService.registerUser(registerRequest);
+    public CompletableFuture<Void> registerNewUser(@RequestBody RegisterRequest registerRequest) {
+        return authenticationService.registerUser(registerRequest);
     }
 
     @PostMapping("/register-admin")
     @ResponseStatus(HttpStatus.CREATED)
-    public void registerNewAdmin(@RequestBody RegisterRequest registerRequest) {
-        authenticationService.registerAdmin(registerRequest);
+    public CompletableFuture<Void> registerNewAdmin(@RequestBody RegisterRequest registerRequest) {
+        return authenticationService.registerAdmin(registerRequest);
     }
 
     @PostMapping("/login")
     @ResponseStatus(HttpStatus.OK)
-    public LoginResponse login(@RequestBody LoginRequest loginRequest) {
-        return authenticationService.login(loginRequest);
+    public CompletableFuture<LoginResponse> login(@RequestBody LoginRequest loginRequest,
+                                                  HttpServletRequest request) {
+        return authenticationService.login(loginRequest, request.getRemoteAddr());
+    }
+
+    @PostMapping("/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    public LoginResponse refresh(@RequestBody RefreshRequest refreshRequest) {
+        return authenticationService.refresh(refreshRequest);
     }
 
     @GetMapping("/validate")
@@ -47,4 +68,31 @@ public class AuthenticationController {
         // the authentication filter will take care of our token validation
         return authenticationService.getValidationResponse();
     }
+
+    @PostMapping("/validate/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<TokenValidationResult> validateTokens(@RequestBody BatchValidationRequest request) {
+        return authenticationService.validateTokens(request.tokens());
+    }
+
+    @GetMapping("/jwks")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Object> getVerificationKeys() {
+        return authenticationService.getVerificationKeys();
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("isAuthenticated()")
+    public void logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        authenticationService.logout(authorization.startsWith(BEARER_PREFIX) ?
+                authorization.substring(BEARER_PREFIX.length()) : authorization);
+    }
+
+    @GetMapping("/revocations")
+    @ResponseStatus(HttpStatus.OK)
+    public RevocationDelta getRevocations(@RequestParam(defaultValue = "0") long after,
+                                          @RequestParam(defaultValue = "500") int limit) {
+        return authenticationService.getRevocations(after, limit);
+    }
 }
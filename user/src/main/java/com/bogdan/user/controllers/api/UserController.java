@@ -1,7 +1,12 @@
 package com.bogdan.user.controllers.api;
 
 import com.bogdan.user.controllers.models.GetUser;
+import com.bogdan.user.controllers.models.ImportFormat;
+import com.bogdan.user.controllers.models.ImportReport;
 import com.bogdan.user.controllers.models.UpdateUser;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.service.UserImportService;
 import com.bogdan.user.service.UserService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -9,13 +14,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -24,11 +32,16 @@ public class UserController {
 
     private final UserService userService;
 
+    private final UserImportService userImportService;
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<GetUser> getAllUsers() {
-        return userService.getAllUsers();
+    public UserPage getUsers(@RequestParam(defaultValue = "0") long after,
+                             @RequestParam(defaultValue = "20") int limit,
+                             @RequestParam(required = false) Role role,
+                             @RequestParam(required = false) String username) {
+        return userService.getUsers(after, limit, role, username);
     }
 
     @GetMapping("/{id}")
@@ -51,4 +64,18 @@ public class UserController {
     public void updateUser(@PathVariable("id") long id, @RequestBody UpdateUser user) {
         userService.updateUser(id, user);
     }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public ImportReport importUsersFromNdjson(InputStream body) throws IOException {
+        return userImportService.importUsers(body, ImportFormat.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public ImportReport importUsersFromCsv(InputStream body) throws IOException {
+        return userImportService.importUsers(body, ImportFormat.CSV);
+    }
 }
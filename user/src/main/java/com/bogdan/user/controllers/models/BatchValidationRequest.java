@@ -0,0 +1,9 @@
+package com.bogdan.user.controllers.models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchValidationRequest(List<String> tokens) {
+}
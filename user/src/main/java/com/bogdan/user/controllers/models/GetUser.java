@@ -4,5 +4,5 @@ import com.bogdan.user.persistence.entities.enums.Role;
 import lombok.Builder;
 
 @Builder
-public record GetUser(String username, String password, Role role) {
+public record GetUser(String username, Role role) {
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.bogdan.user.controllers.models;
+
+public record ImportFailure(long line, String username, String reason) {
+}
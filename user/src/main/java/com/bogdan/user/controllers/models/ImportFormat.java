@@ -0,0 +1,6 @@
+package com.bogdan.user.controllers.models;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
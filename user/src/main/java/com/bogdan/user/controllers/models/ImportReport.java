@@ -0,0 +1,12 @@
+package com.bogdan.user.controllers.models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first failures are listed, {@code failed} counts all of them.
+ */
+@Builder
+public record ImportReport(long imported, long failed, List<ImportFailure> failures, double rowsPerSecond) {
+}
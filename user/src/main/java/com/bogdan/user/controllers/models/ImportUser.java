@@ -0,0 +1,8 @@
+package com.bogdan.user.controllers.models;
+
+import com.bogdan.user.persistence.entities.enums.Role;
+import lombok.Builder;
+
+@Builder
+public record ImportUser(String username, String password, Role role) {
+}
@@ -1,4 +1,4 @@
 package com.bogdan.user.controllers.models;
 
-public record LoginResponse(String token) {
+public record LoginResponse(String token, String refreshToken) {
 }
@@ -0,0 +1,7 @@
+package com.bogdan.user.controllers.models;
+
+import lombok.Builder;
+
+@Builder
+public record TokenValidationResult(ValidationResponse validation, String rejection) {
+}
@@ -0,0 +1,13 @@
+package com.bogdan.user.controllers.models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * A page of users ordered by id. {@code nextCursor} is passed as {@code after} to get the next page and is null on
+ * the last page.
+ */
+@Builder
+public record UserPage(List<UserSummary> users, Long nextCursor) {
+}
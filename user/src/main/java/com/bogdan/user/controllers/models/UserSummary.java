@@ -0,0 +1,6 @@
+package com.bogdan.user.controllers.models;
+
+import com.bogdan.user.persistence.entities.enums.Role;
+
+public record UserSummary(Long id, String username, Role role) {
+}
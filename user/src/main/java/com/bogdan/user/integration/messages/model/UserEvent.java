@@ -0,0 +1,8 @@
+package com.bogdan.user.integration.messages.model;
+
+/**
+ * A change to a user, published with the {@code user.updated} or {@code user.deleted} routing key. {@code newUsername}
+ * is only set on updates and equals {@code username} when the username did not change.
+ */
+public record UserEvent(String username, String newUsername) {
+}
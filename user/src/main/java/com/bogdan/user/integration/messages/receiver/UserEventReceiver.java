@@ -0,0 +1,30 @@
+package com.bogdan.user.integration.messages.receiver;
+
+import com.bogdan.user.integration.messages.model.UserEvent;
+import com.bogdan.user.service.AuthenticationCacheService;
+import com.bogdan.user.service.UserDetailsCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserEventReceiver {
+
+    private final UserDetailsCacheService userDetailsCacheService;
+
+    private final AuthenticationCacheService authenticationCacheService;
+
+    @RabbitListener(queues = "#{userEventsQueue.name}")
+    public void consumeUserEvent(UserEvent event) {
+        log.debug("User event received: {}", event);
+        userDetailsCacheService.evict(event.username());
+        authenticationCacheService.evictUser(event.username());
+        if (event.newUsername() != null) {
+            userDetailsCacheService.evict(event.newUsername());
+            authenticationCacheService.evictUser(event.newUsername());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bogdan.user.integration.messages.sender;
+
+import com.bogdan.user.integration.messages.model.UserEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues user events in memory and publishes them from the scheduler thread, so that a slow or unreachable broker
+ * never delays the request that changed the user. Events that cannot be published are dropped and counted, the
+ * consumers' caches still expire on their own.
+ */
+@Service
+@Slf4j
+public class UserEventSender implements MeterBinder {
+
+    public static final String USER_UPDATED = "user.updated";
+
+    public static final String USER_DELETED = "user.deleted";
+
+    @Value("${rabbitmq.name.user-events-exchange}")
+    private String exchange;
+
+    private final BatchingRabbitTemplate rabbitTemplate;
+
+    private final BlockingQueue<PendingEvent> pendingEvents;
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    public UserEventSender(BatchingRabbitTemplate rabbitTemplate,
+                           @Value("${user-events.queue-capacity:10000}") int queueCapacity) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.pendingEvents = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void sendUserUpdated(String username, String newUsername) {
+        enqueue(USER_UPDATED, new UserEvent(username, newUsername));
+    }
+
+    public void sendUserDeleted(String username) {
+        enqueue(USER_DELETED, new UserEvent(username, null));
+    }
+
+    @Scheduled(fixedDelayString = "${user-events.flush-interval:100ms}")
+    public void flush() {
+        List<PendingEvent> events = new ArrayList<>();
+        pendingEvents.drainTo(events);
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            for (PendingEvent event : events) {
+                rabbitTemplate.convertAndSend(exchange, event.routingKey(), event.event());
+            }
+            rabbitTemplate.flush();
+            publishedEvents.addAndGet(events.size());
+        } catch (AmqpException e) {
+            droppedEvents.addAndGet(events.size());
+            log.warn("Could not publish {} user events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("user.events.pending", pendingEvents, BlockingQueue::size)
+             .description("User events waiting to be published")
+             .register(registry);
+        FunctionCounter.builder("user.events.published", publishedEvents, AtomicLong::get)
+                       .description("User events published to the broker")
+                       .register(registry);
+        FunctionCounter.builder("user.events.dropped", droppedEvents, AtomicLong::get)
+                       .description("User events dropped because the queue was full or the broker unreachable")
+                       .register(registry);
+    }
+
+    private void enqueue(String routingKey, UserEvent event) {
+        if (!pendingEvents.offer(new PendingEvent(routingKey, event))) {
+            droppedEvents.incrementAndGet();
+            log.warn("User event queue is full, dropping {} of {}", routingKey, event.username());
+        }
+    }
+
+    private record PendingEvent(String routingKey, UserEvent event) {
+    }
+}
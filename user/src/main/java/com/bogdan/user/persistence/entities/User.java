@@ -8,6 +8,8 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -22,8 +24,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @NoArgsConstructor
 @ToString
 @Getter
@@ -45,6 +48,28 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    /**
+     * Carried by every access token of the user; revoking it revokes all of them without keeping track of each token.
+     */
+    @Column(nullable = false)
+    private String sessionId;
+
+    public User(Long id, String username, String password, Role role) {
+        this(id, username, password, role, null);
+    }
+
+    public void rotateSessionId() {
+        sessionId = UUID.randomUUID()
+                        .toString();
+    }
+
+    @PrePersist
+    void assignSessionId() {
+        if (sessionId == null) {
+            rotateSessionId();
+        }
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
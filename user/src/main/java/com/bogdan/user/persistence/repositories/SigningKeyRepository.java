@@ -0,0 +1,12 @@
+package com.bogdan.user.persistence.repositories;
+
+import com.bogdan.user.persistence.entities.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByRetiredAtIsNullOrderByCreatedAtDesc();
+}
@@ -0,0 +1,38 @@
+package com.bogdan.user.persistence.repositories;
+
+import com.bogdan.user.persistence.entities.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts users through plain JDBC batches, since Hibernate cannot batch inserts of entities with IDENTITY ids.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+
+    private static final String INSERT_USER =
+            "INSERT INTO user (username, password, `role`, session_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all the users or, if any of them fails, none of them.
+     */
+    @Transactional
+    public void insertAll(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setString(2, user.getPassword());
+            statement.setString(3, user.getRole()
+                                       .name());
+            statement.setString(4, UUID.randomUUID()
+                                       .toString());
+        });
+    }
+}
@@ -1,12 +1,31 @@
 package com.bogdan.user.persistence.repositories;
 
+import com.bogdan.user.controllers.models.UserSummary;
 import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    boolean existsByUsername(String username);
+
+    @Query("""
+            select new com.bogdan.user.controllers.models.UserSummary(u.id, u.username, u.role) from User u
+            where u.id > :after
+              and (:role is null or u.role = :role)
+              and (:usernamePattern is null or u.username like :usernamePattern escape '!')
+            order by u.id""")
+    List<UserSummary> findSummariesAfter(long after, Role role, String usernamePattern, Pageable pageable);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(Collection<String> usernames);
+}
@@ -0,0 +1,21 @@
+package com.bogdan.user.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface AuthenticationCacheService {
+
+    /**
+     * Returns the user a token was already resolved to, unless the token has been revoked since.
+     */
+    Optional<UserDetails> get(String token);
+
+    void put(String token, String tokenId, Date expiresAt, UserDetails userDetails);
+
+    /**
+     * Drops the resolved tokens of the user on this instance. The other instances evict on the user events.
+     */
+    void evictUser(String username);
+}
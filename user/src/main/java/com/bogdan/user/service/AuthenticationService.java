@@ -2,16 +2,36 @@ package com.bogdan.user.service;
 
 import com.bogdan.user.controllers.models.LoginRequest;
 import com.bogdan.user.controllers.models.LoginResponse;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.TokenValidationResult;
 import com.bogdan.user.controllers.models.ValidationResponse;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthenticationService {
 
-    void registerUser(RegisterRequest request);
+    CompletableFuture<Void> registerUser(RegisterRequest request);
+
+    CompletableFuture<Void> registerAdmin(RegisterRequest request);
 
-    void registerAdmin(RegisterRequest request);
+    CompletableFuture<LoginResponse> login(LoginRequest request, String clientAddress);
 
-    LoginResponse login(LoginRequest request);
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token, without checking the password.
+     */
+    LoginResponse refresh(RefreshRequest request);
 
     ValidationResponse getValidationResponse();
+
+    List<TokenValidationResult> validateTokens(List<String> tokens);
+
+    Map<String, Object> getVerificationKeys();
+
+    void logout(String token);
+
+    RevocationDelta getRevocations(long after, int limit);
 }
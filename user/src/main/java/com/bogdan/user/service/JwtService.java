@@ -15,5 +15,13 @@ public interface JwtService {
 
     <T> T extractClaim(String token, Function<Claims, T> claimsResolver);
 
+    Claims verifyToken(String token);
+
     boolean isTokenValid(String token, UserDetails userDetails);
+
+    UserDetails extractUserDetails(String token);
+
+    UserDetails extractUserDetails(Claims claims);
+
+    Map<String, Object> getVerificationKeys();
 }
@@ -0,0 +1,5 @@
+package com.bogdan.user.service;
+
+public interface LoginThrottlingService {
+    void checkAllowed(String username, String clientAddress);
+}
@@ -0,0 +1,8 @@
+package com.bogdan.user.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface PasswordHashingService {
+    <T> CompletableFuture<T> submit(String operation, Supplier<T> task);
+}
@@ -0,0 +1,16 @@
+package com.bogdan.user.service;
+
+public interface RefreshTokenService {
+
+    /**
+     * Creates a refresh token for the user. Only its hash is stored, so the returned value cannot be recovered later.
+     */
+    String issue(String username);
+
+    /**
+     * Invalidates the refresh token and returns the username it was issued to, so that each token is used only once.
+     */
+    String consume(String refreshToken);
+
+    void revokeAllForUser(String username);
+}
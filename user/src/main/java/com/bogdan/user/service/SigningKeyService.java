@@ -0,0 +1,15 @@
+package com.bogdan.user.service;
+
+import io.jsonwebtoken.security.RsaPrivateJwk;
+
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Optional;
+
+public interface SigningKeyService {
+    RsaPrivateJwk getSigningKey();
+
+    Optional<PublicKey> findVerificationKey(String kid);
+
+    Map<String, Object> getVerificationKeys();
+}
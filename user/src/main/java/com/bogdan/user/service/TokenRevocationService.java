@@ -0,0 +1,15 @@
+package com.bogdan.user.service;
+
+import com.bogdan.user.controllers.models.RevocationDelta;
+
+import java.util.Date;
+
+public interface TokenRevocationService {
+    void revoke(String jti, Date expiresAt);
+
+    void revokeSession(String sessionId);
+
+    boolean isRevoked(String jti);
+
+    RevocationDelta getRevocations(long after, int limit);
+}
@@ -0,0 +1,11 @@
+package com.bogdan.user.service;
+
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+public interface UserDetailsCacheService extends UserDetailsService {
+
+    /**
+     * Drops the cached details of the user on this instance. The other instances evict on the user events.
+     */
+    void evict(String username);
+}
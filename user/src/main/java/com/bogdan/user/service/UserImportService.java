@@ -0,0 +1,17 @@
+package com.bogdan.user.service;
+
+import com.bogdan.user.controllers.models.ImportFormat;
+import com.bogdan.user.controllers.models.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    /**
+     * Registers the users read row by row from the input. Rows that cannot be imported are reported with the line
+     * they start on and skipped, they do not stop the rest of the import. CSV fields that contain a comma, a quote or
+     * a line break must be quoted, as in RFC 4180.
+     */
+    ImportReport importUsers(InputStream input, ImportFormat format) throws IOException;
+}
@@ -2,12 +2,16 @@ package com.bogdan.user.service;
 
 import com.bogdan.user.controllers.models.GetUser;
 import com.bogdan.user.controllers.models.UpdateUser;
-
-import java.util.List;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.persistence.entities.enums.Role;
 
 public interface UserService {
 
-    List<GetUser> getAllUsers();
+    /**
+     * Lists at most {@code limit} users with an id greater than {@code after}, optionally only those with the role or
+     * a username starting with the prefix.
+     */
+    UserPage getUsers(long after, int limit, Role role, String usernamePrefix);
 
     GetUser getUser(long id);
 
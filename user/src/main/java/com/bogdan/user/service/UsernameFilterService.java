@@ -0,0 +1,12 @@
+package com.bogdan.user.service;
+
+public interface UsernameFilterService {
+
+    /**
+     * Tells whether the username is already taken, querying the database only when the filter has seen it. A username
+     * registered by another instance since the last rebuild is reported as free, the unique constraint catches it.
+     */
+    boolean isTaken(String username);
+
+    void add(String username);
+}
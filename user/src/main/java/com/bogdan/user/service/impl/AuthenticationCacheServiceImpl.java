@@ -0,0 +1,129 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.service.AuthenticationCacheService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Remembers which user a bearer token was resolved to, so that a token used again skips the signature check and the
+ * user loading. Entries never outlive the token, and a hit still goes through the revocation check, which is answered
+ * by the Bloom filter for tokens that were not revoked.
+ */
+@Service
+public class AuthenticationCacheServiceImpl implements AuthenticationCacheService, MeterBinder {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    private final Duration ttl;
+
+    public AuthenticationCacheServiceImpl(TokenRevocationService tokenRevocationService,
+                                          @Value("${jwt.validation.cache.maximum-size:10000}") long maximumSize,
+                                          @Value("${jwt.validation.cache.ttl:1m}") Duration ttl) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfter(new AuthenticationExpiry())
+                             .recordStats()
+                             .build();
+    }
+
+    @Override
+    public Optional<UserDetails> get(String token) {
+        String key = digest(token);
+        CachedAuthentication authentication = cache.getIfPresent(key);
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        if (tokenRevocationService.isRevoked(authentication.tokenId())) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(authentication.userDetails());
+    }
+
+    @Override
+    public void put(String token, String tokenId, Date expiresAt, UserDetails userDetails) {
+        long timeToLive = ttl.toNanos();
+        if (expiresAt != null) {
+            timeToLive = Math.min(timeToLive, Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis())
+                                                      .toNanos());
+        }
+        if (timeToLive <= 0) {
+            return;
+        }
+        cache.put(digest(token), new CachedAuthentication(tokenId, userDetails, timeToLive));
+    }
+
+    @Override
+    public void evictUser(String username) {
+        cache.asMap()
+             .values()
+             .removeIf(authentication -> username.equals(authentication.userDetails()
+                                                                       .getUsername()));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "authentication");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats()
+                                                      .hitRate())
+             .description("Share of bearer tokens resolved from the cache")
+             .tag("cache", "authentication")
+             .register(registry);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder()
+                         .encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedAuthentication(String tokenId, UserDetails userDetails, long timeToLiveNanos) {
+    }
+
+    private static class AuthenticationExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            return value.timeToLiveNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime,
+                                      long currentDuration) {
+            return value.timeToLiveNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
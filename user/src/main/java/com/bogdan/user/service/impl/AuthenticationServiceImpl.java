@@ -2,23 +2,48 @@ package com.bogdan.user.service.impl;
 
 import com.bogdan.user.controllers.models.LoginRequest;
 import com.bogdan.user.controllers.models.LoginResponse;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.TokenValidationResult;
 import com.bogdan.user.controllers.models.ValidationResponse;
 import com.bogdan.user.service.JwtService;
+import com.bogdan.user.service.LoginThrottlingService;
 import com.bogdan.user.service.AuthenticationService;
+import com.bogdan.user.service.PasswordHashingService;
+import com.bogdan.user.service.RefreshTokenService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.service.UserDetailsCacheService;
+import com.bogdan.user.service.UsernameFilterService;
 import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.utils.exceptions.BatchTooLargeException;
+import com.bogdan.user.utils.exceptions.InvalidRefreshTokenException;
+import com.bogdan.user.utils.exceptions.UsernameAlreadyExistsException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationServiceImpl implements AuthenticationService {
@@ -31,26 +56,56 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final JwtService jwtService;
 
+    private final TokenRevocationService tokenRevocationService;
+
+    private final PasswordHashingService passwordHashingService;
+
+    private final LoginThrottlingService loginThrottlingService;
+
+    private final UsernameFilterService usernameFilterService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserDetailsCacheService userDetailsCacheService;
+
+    // Spring Boot's task executor, the token issuing queries do not belong on the hashing threads
+    private final Executor applicationTaskExecutor;
+
+    @Value("${jwt.validation.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${jwt.validation.load-user:false}")
+    private boolean loadUser;
+
     @Override
-    public void registerUser(RegisterRequest request) {
-        register(request, Role.USER);
+    public CompletableFuture<Void> registerUser(RegisterRequest request) {
+        return register(request, Role.USER);
     }
 
     @Override
-    public void registerAdmin(RegisterRequest request) {
-        register(request, Role.ADMIN);
+    public CompletableFuture<Void> registerAdmin(RegisterRequest request) {
+        return register(request, Role.ADMIN);
     }
 
     @Override
-    public LoginResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.username(), request.password()));
-        if (!authentication.isAuthenticated()) {
-            throw new BadCredentialsException("Invalid credentials");
+    public CompletableFuture<LoginResponse> login(LoginRequest request, String clientAddress) {
+        loginThrottlingService.checkAllowed(request.username(), clientAddress);
+        // the password check runs BCrypt inside the authentication manager, only that takes a hashing thread
+        return passwordHashingService.submit("login", () -> authenticate(request))
+                                     .thenApplyAsync(this::issueTokens, applicationTaskExecutor);
+    }
+
+    @Override
+    public LoginResponse refresh(RefreshRequest request) {
+        String username = refreshTokenService.consume(request.refreshToken());
+        UserDetails user;
+        try {
+            // served from the user details cache most of the time
+            user = userDetailsCacheService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
         }
-        User user = userRepository.findByUsername(request.username())
-                                  .get();
-        return new LoginResponse(jwtService.generateToken(user));
+        return new LoginResponse(jwtService.generateToken(user), refreshTokenService.issue(username));
     }
 
     @Override
@@ -67,12 +122,111 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                                  .build();
     }
 
-    private void register(RegisterRequest request, Role role) {
-        User newUser = User.builder()
-                           .username(request.username())
-                           .password(encoder.encode(request.password()))
-                           .role(role)
-                           .build();
-        userRepository.save(newUser);
+    @Override
+    public List<TokenValidationResult> validateTokens(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new BatchTooLargeException("At most " + maxBatchSize + " tokens can be validated at once");
+        }
+        return tokens.stream()
+                     .map(this::validateToken)
+                     .toList();
+    }
+
+    @Override
+    public Map<String, Object> getVerificationKeys() {
+        return jwtService.getVerificationKeys();
+    }
+
+    @Override
+    public void logout(String token) {
+        Claims claims = jwtService.verifyToken(token);
+        if (claims.getId() == null) {
+            throw new MalformedJwtException("Token has no id and cannot be revoked");
+        }
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+    }
+
+    @Override
+    public RevocationDelta getRevocations(long after, int limit) {
+        return tokenRevocationService.getRevocations(after, limit);
+    }
+
+    private TokenValidationResult validateToken(String token) {
+        try {
+            UserDetails user = jwtService.extractUserDetails(token);
+            if (loadUser) {
+                // the same check as JwtAuthenticationFilter, so that both validation endpoints agree
+                UserDetails storedUser = userDetailsCacheService.loadUserByUsername(user.getUsername());
+                if (!storedUser.getAuthorities()
+                               .equals(user.getAuthorities())) {
+                    return TokenValidationResult.builder()
+                                                .rejection("User no longer matches the token")
+                                                .build();
+                }
+                user = storedUser;
+            }
+            return TokenValidationResult.builder()
+                                        .validation(ValidationResponse.builder()
+                                                                      .username(user.getUsername())
+                                                                      .role(user.getAuthorities()
+                                                                                .stream()
+                                                                                .map(GrantedAuthority::getAuthority)
+                                                                                .findAny()
+                                                                                .orElseThrow())
+                                                                      .build())
+                                        .build();
+        } catch (ExpiredJwtException e) {
+            return TokenValidationResult.builder()
+                                        .rejection("Token expired")
+                                        .build();
+        } catch (UsernameNotFoundException e) {
+            return TokenValidationResult.builder()
+                                        .rejection("User no longer matches the token")
+                                        .build();
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenValidationResult.builder()
+                                        .rejection("Invalid token")
+                                        .build();
+        }
+    }
+
+    private String authenticate(LoginRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.username(), request.password()));
+        if (!authentication.isAuthenticated()) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        return request.username();
+    }
+
+    private LoginResponse issueTokens(String username) {
+        User user = userRepository.findByUsername(username)
+                                  .get();
+        return new LoginResponse(jwtService.generateToken(user), refreshTokenService.issue(user.getUsername()));
+    }
+
+    private CompletableFuture<Void> register(RegisterRequest request, Role role) {
+        // checked before hashing so that a duplicate sign up does not cost a password hash
+        if (usernameFilterService.isTaken(request.username())) {
+            throw new UsernameAlreadyExistsException("Username " + request.username() + " is already taken");
+        }
+        return passwordHashingService.submit("register", () -> encoder.encode(request.password()))
+                                     .thenAccept(password -> save(User.builder()
+                                                                      .username(request.username())
+                                                                      .password(password)
+                                                                      .role(role)
+                                                                      .build()));
+    }
+
+    private void save(User user) {
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw new UsernameAlreadyExistsException("Username " + user.getUsername() + " is already taken");
+            }
+            throw e;
+        }
+        usernameFilterService.add(user.getUsername());
     }
 }
@@ -1,33 +1,65 @@
 package com.bogdan.user.service.impl;
 
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.service.JwtService;
+import com.bogdan.user.service.SigningKeyService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.utils.exceptions.TokenRevokedException;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.RsaPrivateJwk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
-    private final String secretKey;
+    private static final String ROLE_CLAIM = "role";
 
-    public JwtServiceImpl() throws NoSuchAlgorithmException {
-        KeyGenerator keyGenerator = KeyGenerator.getInstance("HmacSHA256");
-        SecretKey sk = keyGenerator.generateKey();
-        secretKey = Base64.getEncoder()
-                          .encodeToString(sk.getEncoded());
+    private static final String USER_ID_CLAIM = "uid";
 
+    private static final String SESSION_ID_CLAIM = "sid";
+
+    private final SigningKeyService signingKeyService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final JwtParser jwtParser;
+
+    private final Duration accessTokenTtl;
+
+    public JwtServiceImpl(SigningKeyService signingKeyService, TokenRevocationService tokenRevocationService,
+                          @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl) {
+        this.signingKeyService = signingKeyService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.accessTokenTtl = accessTokenTtl;
+        jwtParser = Jwts.parser()
+                        .keyLocator(new LocatorAdapter<Key>() {
+                            @Override
+                            protected Key locate(JwsHeader header) {
+                                if (header.getKeyId() == null) {
+                                    return null;
+                                }
+                                return signingKeyService.findVerificationKey(header.getKeyId())
+                                                        .orElse(null);
+                            }
+                        })
+                        .build();
     }
 
     @Override
@@ -37,52 +69,90 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder()
-                   .claims()
-                   .add(extraClaims)
-                   .subject(userDetails.getUsername())
-                   .issuedAt(new Date(System.currentTimeMillis()))
-                   .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
-                   .and()
-                   .signWith(getSigningKey())
-                   .compact();
+        RsaPrivateJwk signingKey = signingKeyService.getSigningKey();
+        String tokenId = UUID.randomUUID()
+                             .toString();
+        long now = System.currentTimeMillis();
+        Date expiration = new Date(now + accessTokenTtl.toMillis());
+        String token = Jwts.builder()
+                           .header()
+                           .keyId(signingKey.getId())
+                           .and()
+                           .claims()
+                           .add(extraClaims)
+                           .id(tokenId)
+                           .subject(userDetails.getUsername())
+                           .issuedAt(new Date(now))
+                           .expiration(expiration)
+                           .and()
+                           .signWith(signingKey.toKey(), Jwts.SIG.RS256)
+                           .compact();
+        return token;
     }
 
     @Override
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        userDetails.getAuthorities()
+                   .stream()
+                   .map(GrantedAuthority::getAuthority)
+                   .findAny()
+                   .ifPresent(role -> claims.put(ROLE_CLAIM, role));
+        if (userDetails instanceof User user) {
+            if (user.getId() != null) {
+                claims.put(USER_ID_CLAIM, user.getId());
+            }
+            if (user.getSessionId() != null) {
+                // lets the tokens of the user be revoked all at once
+                claims.put(SESSION_ID_CLAIM, user.getSessionId());
+            }
+        }
+        return generateToken(claims, userDetails);
     }
 
     @Override
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verifyToken(token));
     }
 
     @Override
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    public Claims verifyToken(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token)
+                                 .getPayload();
+        if (tokenRevocationService.isRevoked(claims.getId()) ||
+                tokenRevocationService.isRevoked(claims.get(SESSION_ID_CLAIM, String.class))) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    @Override
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        final Claims claims = verifyToken(token);
+        final String username = claims.getSubject();
+        return (userDetails.getUsername().equals(username)) && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @Override
+    public UserDetails extractUserDetails(String token) {
+        return extractUserDetails(verifyToken(token));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                   .verifyWith(getSigningKey())
-                   .build()
-                   .parseSignedClaims(token)
-                   .getPayload();
+    @Override
+    public UserDetails extractUserDetails(Claims claims) {
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (claims.getSubject() == null || role == null) {
+            throw new MalformedJwtException("Token does not carry the user identity");
+        }
+        return User.builder()
+                   .id(claims.get(USER_ID_CLAIM, Long.class))
+                   .username(claims.getSubject())
+                   .role(Role.valueOf(role))
+                   .build();
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Override
+    public Map<String, Object> getVerificationKeys() {
+        return signingKeyService.getVerificationKeys();
     }
 }
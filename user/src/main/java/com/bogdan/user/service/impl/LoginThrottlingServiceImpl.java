@@ -0,0 +1,85 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.service.LoginThrottlingService;
+import com.bogdan.user.utils.SlidingWindowRateLimiter;
+import com.bogdan.user.utils.exceptions.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects login attempts over the per-username or per-client limits before any password hashing or query happens.
+ */
+@Service
+public class LoginThrottlingServiceImpl implements LoginThrottlingService, MeterBinder {
+
+    private final SlidingWindowRateLimiter usernameLimiter;
+
+    private final SlidingWindowRateLimiter clientLimiter;
+
+    private final AtomicLong usernameRejections = new AtomicLong();
+
+    private final AtomicLong clientRejections = new AtomicLong();
+
+    public LoginThrottlingServiceImpl(@Value("${login.throttling.username.limit:10}") int usernameLimit,
+                                      @Value("${login.throttling.username.window:1m}") Duration usernameWindow,
+                                      @Value("${login.throttling.client.limit:50}") int clientLimit,
+                                      @Value("${login.throttling.client.window:1m}") Duration clientWindow,
+                                      @Value("${login.throttling.concurrency:16}") int concurrency) {
+        this.usernameLimiter = new SlidingWindowRateLimiter(usernameLimit, usernameWindow, concurrency);
+        this.clientLimiter = new SlidingWindowRateLimiter(clientLimit, clientWindow, concurrency);
+    }
+
+    @Override
+    public void checkAllowed(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        // the client is checked first so that a client spraying many usernames does not fill the username limiter
+        if (clientAddress != null && !clientLimiter.tryAcquire(clientAddress, now)) {
+            clientRejections.incrementAndGet();
+            throw new TooManyLoginAttemptsException("Too many login attempts, try again later");
+        }
+        if (username != null && !usernameLimiter.tryAcquire(username, now)) {
+            usernameRejections.incrementAndGet();
+            throw new TooManyLoginAttemptsException("Too many login attempts, try again later");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${login.throttling.cleanup-interval:1m}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        usernameLimiter.evictExpired(now);
+        clientLimiter.evictExpired(now);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        bindLimiter(registry, "username", usernameLimiter, usernameRejections);
+        bindLimiter(registry, "client", clientLimiter, clientRejections);
+    }
+
+    private static void bindLimiter(MeterRegistry registry, String limiterName, SlidingWindowRateLimiter limiter,
+                                    AtomicLong rejections) {
+        Gauge.builder("login.throttling.entries", limiter, SlidingWindowRateLimiter::size)
+             .description("Keys tracked by the login limiter")
+             .tag("limiter", limiterName)
+             .register(registry);
+        Gauge.builder("login.throttling.size", limiter, SlidingWindowRateLimiter::estimatedSizeInBytes)
+             .description("Estimated memory used by the login limiter")
+             .tag("limiter", limiterName)
+             .baseUnit(BaseUnits.BYTES)
+             .register(registry);
+        FunctionCounter.builder("login.throttling.rejected", rejections, AtomicLong::get)
+                       .description("Login attempts rejected by the login limiter")
+                       .tag("limiter", limiterName)
+                       .register(registry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.service.PasswordHashingService;
+import com.bogdan.user.utils.exceptions.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work that hashes passwords on a pool sized to the CPU count, so that a burst of logins cannot tie up the
+ * request threads. When the queue is full new work is rejected right away instead of piling up.
+ */
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService, DisposableBean {
+
+    private static final String NAME = "password-hashing";
+
+    private final ThreadPoolExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter rejections;
+
+    public PasswordHashingServiceImpl(MeterRegistry meterRegistry,
+                                      @Value("${password-hashing.threads:0}") int threads,
+                                      @Value("${password-hashing.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime()
+                                                      .availableProcessors();
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rejections = Counter.builder("password.hashing.rejected")
+                                 .description("Password hashing work rejected because the queue was full")
+                                 .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        Timer latency = Timer.builder("password.hashing")
+                             .description("Time spent running password hashing work")
+                             .tag("operation", operation)
+                             .publishPercentileHistogram()
+                             .register(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> latency.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingCapacityExceededException("Too many requests, try again later");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, NAME + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
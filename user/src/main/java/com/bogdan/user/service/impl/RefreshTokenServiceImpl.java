@@ -0,0 +1,100 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.persistence.entities.RefreshToken;
+import com.bogdan.user.persistence.repositories.RefreshTokenRepository;
+import com.bogdan.user.service.RefreshTokenService;
+import com.bogdan.user.utils.exceptions.InvalidRefreshTokenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Refresh tokens are random, so a single SHA-256 is enough to keep the stored value useless if the table leaks, and a
+ * refresh costs one indexed lookup instead of a password hash.
+ */
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration ttl;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Value("${jwt.refresh-token.ttl:14d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String issue(String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder()
+                                    .withoutPadding()
+                                    .encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                                                .tokenHash(hash(refreshToken))
+                                                .username(username)
+                                                .expiresAt(LocalDateTime.now()
+                                                                        .plus(ttl))
+                                                .build());
+        return refreshToken;
+    }
+
+    @Override
+    public String consume(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                                                    .orElseThrow(() -> new InvalidRefreshTokenException(
+                                                            "Invalid refresh token"));
+        // only the request that manages to delete the token may use it
+        if (refreshTokenRepository.deleteIfPresent(stored.getId()) == 0) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        if (stored.getExpiresAt()
+                  .isBefore(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        return stored.getUsername();
+    }
+
+    @Override
+    public void revokeAllForUser(String username) {
+        refreshTokenRepository.deleteByUsername(username);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.cleanup-interval:1h}",
+            initialDelayString = "${jwt.refresh-token.cleanup-interval:1h}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of()
+                            .formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
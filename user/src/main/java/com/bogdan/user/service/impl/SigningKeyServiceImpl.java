@@ -0,0 +1,190 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.persistence.entities.SigningKey;
+import com.bogdan.user.persistence.repositories.SigningKeyRepository;
+import com.bogdan.user.service.SigningKeyService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.RsaPrivateJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class SigningKeyServiceImpl implements SigningKeyService {
+
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 5_000;
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    private final Duration rotationInterval;
+
+    private final Duration retention;
+
+    private volatile KeyRing keyRing;
+
+    private long lastReload;
+
+    public SigningKeyServiceImpl(SigningKeyRepository signingKeyRepository,
+                                 @Value("${jwt.signing-keys.rotation-interval:7d}") Duration rotationInterval,
+                                 @Value("${jwt.signing-keys.retention:1h}") Duration retention) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+    }
+
+    @Override
+    public RsaPrivateJwk getSigningKey() {
+        return keyRing().signingKey();
+    }
+
+    @Override
+    public Optional<PublicKey> findVerificationKey(String kid) {
+        PublicKey key = keyRing().verificationKeys()
+                                 .get(kid);
+        if (key == null && reloadAllowed()) {
+            // another instance may have rotated the ring since the last reload
+            key = reload().verificationKeys()
+                          .get(kid);
+        }
+        return Optional.ofNullable(key);
+    }
+
+    @Override
+    public Map<String, Object> getVerificationKeys() {
+        return Map.of("keys", keyRing().jwks());
+    }
+
+    /**
+     * Rotates in a new key once the current one is older than the rotation interval, retires keys that were
+     * superseded longer than the retention period ago and reloads the in-memory ring from the database.
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing-keys.refresh-interval:1m}")
+    public void refreshKeys() {
+        reload();
+    }
+
+    private synchronized KeyRing reload() {
+        LocalDateTime now = LocalDateTime.now();
+        lastReload = System.currentTimeMillis();
+        List<SigningKey> keys = new ArrayList<>(signingKeyRepository.findByRetiredAtIsNullOrderByCreatedAtDesc());
+        if (keys.isEmpty() || keys.get(0)
+                                  .getCreatedAt()
+                                  .isBefore(now.minus(rotationInterval))) {
+            SigningKey newKey = signingKeyRepository.save(generateKey(now));
+            log.info("Rotated signing key, new kid {}", newKey.getKid());
+            keys.add(0, newKey);
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            if (keys.get(i - 1)
+                    .getCreatedAt()
+                    .isBefore(now.minus(retention))) {
+                SigningKey retired = keys.remove(i--);
+                retired.setRetiredAt(now);
+                signingKeyRepository.save(retired);
+                log.info("Retired signing key {}", retired.getKid());
+            }
+        }
+        keyRing = KeyRing.of(keys);
+        return keyRing;
+    }
+
+    private KeyRing keyRing() {
+        KeyRing ring = keyRing;
+        if (ring == null) {
+            synchronized (this) {
+                ring = keyRing != null ? keyRing : reload();
+            }
+        }
+        return ring;
+    }
+
+    private synchronized boolean reloadAllowed() {
+        return System.currentTimeMillis() - lastReload >= MIN_RELOAD_INTERVAL_MILLIS;
+    }
+
+    private static SigningKey generateKey(LocalDateTime now) {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair()
+                                        .build();
+        String kid = Jwks.builder()
+                         .key((RSAPublicKey) keyPair.getPublic())
+                         .idFromThumbprint()
+                         .build()
+                         .getId();
+        return SigningKey.builder()
+                         .kid(kid)
+                         .publicKey(Encoders.BASE64.encode(keyPair.getPublic()
+                                                                  .getEncoded()))
+                         .privateKey(Encoders.BASE64.encode(keyPair.getPrivate()
+                                                                   .getEncoded()))
+                         .createdAt(now)
+                         .build();
+    }
+
+    private record KeyRing(RsaPrivateJwk signingKey, Map<String, PublicKey> verificationKeys,
+                   List<Map<String, Object>> jwks) {
+
+        static KeyRing of(List<SigningKey> keys) {
+            Map<String, PublicKey> verificationKeys = new HashMap<>();
+            List<Map<String, Object>> jwks = new ArrayList<>();
+            RsaPrivateJwk signingKey = null;
+            for (SigningKey key : keys) {
+                RSAPublicKey publicKey = decodePublicKey(key.getPublicKey());
+                verificationKeys.put(key.getKid(), publicKey);
+                jwks.add(new LinkedHashMap<>(Jwks.builder()
+                                                 .key(publicKey)
+                                                 .algorithm(Jwts.SIG.RS256.getId())
+                                                 .id(key.getKid())
+                                                 .build()));
+                if (signingKey == null) {
+                    signingKey = Jwks.builder()
+                                     .key(decodePrivateKey(key.getPrivateKey()))
+                                     .publicKey(publicKey)
+                                     .algorithm(Jwts.SIG.RS256.getId())
+                                     .id(key.getKid())
+                                     .build();
+                }
+            }
+            return new KeyRing(signingKey, Map.copyOf(verificationKeys), List.copyOf(jwks));
+        }
+
+        private static RSAPublicKey decodePublicKey(String encoded) {
+            try {
+                return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                                                .generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(encoded)));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Stored public key could not be decoded", e);
+            }
+        }
+
+        private static RSAPrivateKey decodePrivateKey(String encoded) {
+            try {
+                return (RSAPrivateKey) KeyFactory.getInstance("RSA")
+                                                 .generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(encoded)));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Stored private key could not be decoded", e);
+            }
+        }
+    }
+}
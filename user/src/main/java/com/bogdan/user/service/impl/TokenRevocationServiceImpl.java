@@ -0,0 +1,200 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.RevokedTokenEntry;
+import com.bogdan.user.persistence.entities.RevokedToken;
+import com.bogdan.user.persistence.repositories.RevokedTokenRepository;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.utils.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Keeps revoked token ids in the database and a Bloom filter of them in memory. Tokens that were never revoked,
+ * which is almost every token, are answered by the filter alone; only filter hits are confirmed against the database.
+ * A revoked session id is stored the same way and revokes every token carrying it.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService, MeterBinder {
+
+    private static final int MAX_DELTA_SIZE = 1000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveRate;
+
+    private final long syncLookback;
+
+    private final Duration accessTokenTtl;
+
+    private final AtomicLong observedFalsePositives = new AtomicLong();
+
+    private volatile BloomFilter filter;
+
+    private long cursor;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                      @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${jwt.revocation.sync-lookback:100}") long syncLookback,
+                                      @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncLookback = syncLookback;
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    @Override
+    public void revoke(String jti, Date expiresAt) {
+        revoke(jti, toLocalDateTime(expiresAt));
+    }
+
+    @Override
+    public void revokeSession(String sessionId) {
+        // no token carrying the session outlives a full access token lifetime from now
+        revoke(sessionId, LocalDateTime.now()
+                                       .plus(accessTokenTtl));
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter().mightContain(jti)) {
+            return false;
+        }
+        boolean revoked = revokedTokenRepository.existsByJti(jti);
+        if (!revoked) {
+            observedFalsePositives.incrementAndGet();
+        }
+        return revoked;
+    }
+
+    @Override
+    public RevocationDelta getRevocations(long after, int limit) {
+        List<RevokedToken> revocations = revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(after,
+                PageRequest.of(0, Math.max(1, Math.min(limit, MAX_DELTA_SIZE))));
+        return RevocationDelta.builder()
+                              .revocations(revocations.stream()
+                                                      .map(token -> new RevokedTokenEntry(token.getJti(),
+                                                              token.getExpiresAt()
+                                                                   .atZone(ZoneId.systemDefault())
+                                                                   .toEpochSecond()))
+                                                      .toList())
+                              .cursor(revocations.isEmpty() ? after : revocations.get(revocations.size() - 1)
+                                                                                 .getId())
+                              .build();
+    }
+
+    /**
+     * Adds the revocations made by the other instances since the last sync. Ids are handed out before the revoking
+     * transactions commit, so a revocation can show up after one with a higher id; every sync re-reads a few ids
+     * behind the cursor to pick those up. One that lags further behind is only picked up by the next rebuild.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:10s}")
+    public synchronized void syncRevocations() {
+        if (filter == null) {
+            rebuild();
+            return;
+        }
+        long after = Math.max(0, cursor - syncLookback);
+        List<RevokedToken> revocations;
+        do {
+            revocations = revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(after,
+                    PageRequest.of(0, MAX_DELTA_SIZE));
+            for (RevokedToken revocation : revocations) {
+                filter.put(revocation.getJti());
+                after = revocation.getId();
+            }
+            cursor = Math.max(cursor, after);
+        } while (revocations.size() == MAX_DELTA_SIZE);
+    }
+
+    /**
+     * Drops expired tokens from the database and rebuilds the filter, since a Bloom filter cannot forget entries.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval:1h}",
+            initialDelayString = "${jwt.revocation.rebuild-interval:1h}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        for (RevokedToken revocation : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            rebuilt.put(revocation.getJti());
+            cursor = Math.max(cursor, revocation.getId());
+        }
+        filter = rebuilt;
+        log.info("Rebuilt token revocation filter with {} entries", rebuilt.getInsertions());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        filterGauge("token.revocation.filter.false-positive-rate", BloomFilter::expectedFalsePositiveRate)
+                .description("Expected false-positive rate of the token revocation filter")
+                .register(registry);
+        filterGauge("token.revocation.filter.size", BloomFilter::getSizeInBytes)
+                .description("Memory used by the token revocation filter")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        filterGauge("token.revocation.filter.entries", BloomFilter::getInsertions)
+                .description("Revoked tokens held by the token revocation filter")
+                .register(registry);
+        FunctionCounter.builder("token.revocation.filter.false-positives", observedFalsePositives, AtomicLong::get)
+                       .description("Filter hits for tokens that turned out not to be revoked")
+                       .register(registry);
+    }
+
+    private synchronized void revoke(String jti, LocalDateTime expiresAt) {
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            revokedTokenRepository.save(RevokedToken.builder()
+                                                    .jti(jti)
+                                                    .expiresAt(expiresAt)
+                                                    .revokedAt(LocalDateTime.now())
+                                                    .build());
+        }
+        filter().put(jti);
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                if (filter == null) {
+                    rebuild();
+                }
+                current = filter;
+            }
+        }
+        return current;
+    }
+
+    private Gauge.Builder<TokenRevocationServiceImpl> filterGauge(String name, ToDoubleFunction<BloomFilter> value) {
+        return Gauge.builder(name, this, service -> {
+            BloomFilter current = service.filter;
+            return current == null ? 0 : value.applyAsDouble(current);
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
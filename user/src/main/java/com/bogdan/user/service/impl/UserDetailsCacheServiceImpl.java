@@ -0,0 +1,79 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.UserDetailsCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps the details of recently authenticated users so that logins and token checks with user loading do not query
+ * the database every time. Missing users are not cached, and the time to live bounds how stale an entry can get when
+ * an invalidation message is lost.
+ */
+@Service
+public class UserDetailsCacheServiceImpl implements UserDetailsCacheService, MeterBinder {
+
+    private final UserRepository userRepository;
+
+    private final Cache<String, User> cache;
+
+    public UserDetailsCacheServiceImpl(UserRepository userRepository,
+                                       @Value("${user-details.cache.maximum-size:10000}") long maximumSize,
+                                       @Value("${user-details.cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(ttl)
+                             .recordStats()
+                             .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        User user = cache.get(username, key -> userRepository.findByUsername(key)
+                                                             .map(UserDetailsCacheServiceImpl::copyOf)
+                                                             .orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        // callers get their own copy, so nothing they change on it leaks into the cache
+        return copyOf(user);
+    }
+
+    @Override
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user-details");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats()
+                                                      .hitRate())
+             .description("Share of user details lookups served from the cache")
+             .tag("cache", "user-details")
+             .register(registry);
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                   .id(user.getId())
+                   .username(user.getUsername())
+                   .password(user.getPassword())
+                   .role(user.getRole())
+                   .sessionId(user.getSessionId())
+                   .build();
+    }
+}
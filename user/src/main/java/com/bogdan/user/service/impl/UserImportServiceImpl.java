@@ -0,0 +1,280 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.controllers.models.ImportFailure;
+import com.bogdan.user.controllers.models.ImportFormat;
+import com.bogdan.user.controllers.models.ImportReport;
+import com.bogdan.user.controllers.models.ImportUser;
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.UserBatchRepository;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.UserImportService;
+import com.bogdan.user.service.UsernameFilterService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Imports users in batches: the usernames of a batch are checked with one query, the passwords are hashed in
+ * parallel on the common fork join pool, so that a large import does not take the login hashing threads, and the rows
+ * are inserted with one JDBC batch. CSV is read as RFC 4180, so fields holding commas, quotes or line breaks are
+ * quoted.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.RFC4180.builder()
+                                                                 .setIgnoreEmptyLines(false)
+                                                                 .build();
+
+    private final UserRepository userRepository;
+
+    private final UserBatchRepository userBatchRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper;
+
+    private final UsernameFilterService usernameFilterService;
+
+    private final int batchSize;
+
+    public UserImportServiceImpl(UserRepository userRepository, UserBatchRepository userBatchRepository,
+                                 PasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+                                 UsernameFilterService usernameFilterService,
+                                 @Value("${users.import.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.usernameFilterService = usernameFilterService;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportReport importUsers(InputStream input, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            Consumer<Row> rows = row -> {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, progress);
+                    batch.clear();
+                }
+            };
+            if (format == ImportFormat.CSV) {
+                readCsv(reader, rows, progress);
+            } else {
+                readNdjson(reader, rows, progress);
+            }
+            importBatch(batch, progress);
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        double rowsPerSecond = (progress.imported + progress.failed) / seconds;
+        log.info("Imported {} users, {} rows failed, {} rows/s", progress.imported, progress.failed,
+                Math.round(rowsPerSecond));
+        return ImportReport.builder()
+                           .imported(progress.imported)
+                           .failed(progress.failed)
+                           .failures(progress.failures)
+                           .rowsPerSecond(rowsPerSecond)
+                           .build();
+    }
+
+    private void readNdjson(BufferedReader reader, Consumer<Row> rows, ImportProgress progress) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportUser user;
+            try {
+                user = objectMapper.readValue(line, ImportUser.class);
+            } catch (JsonProcessingException e) {
+                progress.fail(lineNumber, null, "Malformed row");
+                continue;
+            }
+            accept(lineNumber, user, rows, progress);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Consumer<Row> rows, ImportProgress progress) throws IOException {
+        CSVParser parser = CSV_FORMAT.parse(reader);
+        Iterator<CSVRecord> records = parser.iterator();
+        // a quoted field can span lines, a record starts on the line after the end of the previous one
+        long lineNumber = 1;
+        boolean firstRecord = true;
+        while (true) {
+            CSVRecord record;
+            try {
+                if (!records.hasNext()) {
+                    return;
+                }
+                record = records.next();
+            } catch (UncheckedIOException e) {
+                // the parser cannot tell where the next row starts after an unbalanced quote
+                progress.fail(lineNumber, null, "Malformed row: unbalanced quotes, the rest of the input was skipped");
+                return;
+            }
+            long recordLine = lineNumber;
+            lineNumber = parser.getCurrentLineNumber() + 1;
+            if (record.size() == 1 && record.get(0)
+                                            .isBlank()) {
+                continue;
+            }
+            if (firstRecord && isCsvHeader(record)) {
+                firstRecord = false;
+                continue;
+            }
+            firstRecord = false;
+            if (record.size() < 2 || record.size() > 3) {
+                progress.fail(recordLine, null, "Malformed row: expected username,password[,role]");
+                continue;
+            }
+            String username = record.get(0)
+                                    .trim();
+            Role role = null;
+            if (record.size() == 3 && !record.get(2)
+                                             .isBlank()) {
+                try {
+                    role = Role.valueOf(record.get(2)
+                                              .trim()
+                                              .toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(recordLine, username, "Unknown role " + record.get(2)
+                                                                                .trim());
+                    continue;
+                }
+            }
+            accept(recordLine, ImportUser.builder()
+                                         .username(username)
+                                         .password(record.get(1))
+                                         .role(role)
+                                         .build(), rows, progress);
+        }
+    }
+
+    private static void accept(long lineNumber, ImportUser user, Consumer<Row> rows, ImportProgress progress) {
+        if (user == null || user.username() == null || user.username()
+                                                           .isBlank()) {
+            progress.fail(lineNumber, null, "Missing username");
+            return;
+        }
+        if (user.password() == null || user.password()
+                                            .isBlank()) {
+            progress.fail(lineNumber, user.username(), "Missing password");
+            return;
+        }
+        rows.accept(new Row(lineNumber, user));
+    }
+
+    private void importBatch(List<Row> batch, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (Row row : batch) {
+            if (rows.putIfAbsent(row.user()
+                                    .username(), row) != null) {
+                progress.fail(row, "Duplicate username in the import");
+            }
+        }
+        for (String username : new HashSet<>(userRepository.findExistingUsernames(rows.keySet()))) {
+            Row row = rows.remove(username);
+            if (row != null) {
+                progress.fail(row, "Username already exists");
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Row> newRows = new ArrayList<>(rows.values());
+        List<User> users = newRows.parallelStream()
+                                  .map(row -> toUser(row.user()))
+                                  .toList();
+        try {
+            userBatchRepository.insertAll(users);
+            users.forEach(user -> usernameFilterService.add(user.getUsername()));
+            progress.imported += users.size();
+        } catch (DuplicateKeyException e) {
+            // a username was registered after the check, insert one by one to find out which
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    userBatchRepository.insertAll(List.of(users.get(i)));
+                    usernameFilterService.add(users.get(i)
+                                                   .getUsername());
+                    progress.imported++;
+                } catch (DuplicateKeyException rowException) {
+                    progress.fail(newRows.get(i), "Username already exists");
+                }
+            }
+        }
+    }
+
+    private User toUser(ImportUser user) {
+        return User.builder()
+                   .username(user.username())
+                   .password(passwordEncoder.encode(user.password()))
+                   .role(user.role() == null ? Role.USER : user.role())
+                   .build();
+    }
+
+    private static boolean isCsvHeader(CSVRecord record) {
+        return record.get(0)
+                     .trim()
+                     .equalsIgnoreCase("username");
+    }
+
+    private record Row(long line, ImportUser user) {
+    }
+
+    private static final class ImportProgress {
+
+        private final List<ImportFailure> failures = new ArrayList<>();
+
+        private long imported;
+
+        private long failed;
+
+        private void fail(Row row, String reason) {
+            fail(row.line(), row.user()
+                                .username(), reason);
+        }
+
+        private void fail(long line, String username, String reason) {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new ImportFailure(line, username, reason));
+            }
+        }
+    }
+}
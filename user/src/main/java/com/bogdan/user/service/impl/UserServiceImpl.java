@@ -1,31 +1,68 @@
 package com.bogdan.user.service.impl;
 
 import com.bogdan.user.controllers.models.UpdateUser;
+import com.bogdan.user.integration.messages.sender.UserEventSender;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.controllers.models.UserSummary;
+import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.AuthenticationCacheService;
+import com.bogdan.user.service.RefreshTokenService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.service.UserDetailsCacheService;
 import com.bogdan.user.service.UserService;
+import com.bogdan.user.service.UsernameFilterService;
 import com.bogdan.user.controllers.models.GetUser;
 import com.bogdan.user.utils.exceptions.UserNotFoundException;
+import com.bogdan.user.utils.exceptions.UsernameAlreadyExistsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
+    private final TokenRevocationService tokenRevocationService;
+
+    private final UserDetailsCacheService userDetailsCacheService;
+
+    private final UsernameFilterService usernameFilterService;
+
+    private final UserEventSender userEventSender;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final AuthenticationCacheService authenticationCacheService;
+
     @Override
-    public List<GetUser> getAllUsers() {
-        return userRepository.findAll()
-                             .stream()
-                             .map(this::mapUserToUserDto)
-                             .toList();
+    public UserPage getUsers(long after, int limit, Role role, String usernamePrefix) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one extra row tells whether there is a next page without a count query
+        List<UserSummary> users = userRepository.findSummariesAfter(after, role, toLikePattern(usernamePrefix),
+                PageRequest.of(0, pageSize + 1));
+        if (users.size() <= pageSize) {
+            return UserPage.builder()
+                           .users(users)
+                           .build();
+        }
+        List<UserSummary> page = users.subList(0, pageSize);
+        return UserPage.builder()
+                       .users(page)
+                       .nextCursor(page.get(pageSize - 1)
+                                       .id())
+                       .build();
     }
 
     @Override
@@ -37,22 +74,60 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUser(long id) {
+        // the tokens of a deleted user must stop working right away, not when they expire
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(u -> {
+            tokenRevocationService.revokeSession(u.getSessionId());
+            refreshTokenService.revokeAllForUser(u.getUsername());
+        });
         userRepository.deleteById(id);
+        user.ifPresent(u -> {
+            userDetailsCacheService.evict(u.getUsername());
+            authenticationCacheService.evictUser(u.getUsername());
+            userEventSender.sendUserDeleted(u.getUsername());
+        });
     }
 
     @Override
     public void updateUser(long id, UpdateUser updatedUser) {
         User user = userRepository.findById(id)
                                   .orElseThrow(() -> new UserNotFoundException("There is no user with id " + id));
+        String previousUsername = user.getUsername();
+        String previousSessionId = user.getSessionId();
+        if (!previousUsername.equals(updatedUser.username()) && usernameFilterService.isTaken(updatedUser.username())) {
+            throw new UsernameAlreadyExistsException("Username " + updatedUser.username() + " is already taken");
+        }
         user.setUsername(updatedUser.username());
         user.setPassword(passwordEncoder.encode(updatedUser.password()));
+        if (!previousUsername.equals(updatedUser.username())) {
+            user.rotateSessionId();
+        }
         userRepository.save(user);
+        usernameFilterService.add(updatedUser.username());
+        // evicted only once the change is stored, so a concurrent lookup cannot cache the old details again
+        userDetailsCacheService.evict(previousUsername);
+        authenticationCacheService.evictUser(previousUsername);
+        if (!previousUsername.equals(updatedUser.username())) {
+            userDetailsCacheService.evict(updatedUser.username());
+            // the existing tokens still carry the old username
+            tokenRevocationService.revokeSession(previousSessionId);
+            refreshTokenService.revokeAllForUser(previousUsername);
+        }
+        userEventSender.sendUserUpdated(previousUsername, updatedUser.username());
+    }
+
+    private static String toLikePattern(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return prefix.replace("!", "!!")
+                     .replace("%", "!%")
+                     .replace("_", "!_") + "%";
     }
 
     private GetUser mapUserToUserDto(User user) {
         return GetUser.builder()
                       .username(user.getUsername())
-                      .password(user.getPassword())
                       .role(user.getRole())
                       .build();
     }
@@ -0,0 +1,122 @@
+package com.bogdan.user.service.impl;
+
+import com.bogdan.user.controllers.models.UserSummary;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.UsernameFilterService;
+import com.bogdan.user.utils.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+@Slf4j
+@Service
+public class UsernameFilterServiceImpl implements UsernameFilterService, MeterBinder {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private final long expectedUsernames;
+
+    private final double falsePositiveRate;
+
+    private final AtomicLong observedFalsePositives = new AtomicLong();
+
+    private volatile BloomFilter filter;
+
+    public UsernameFilterServiceImpl(UserRepository userRepository,
+                                     @Value("${users.username-filter.expected-usernames:1000000}")
+                                     long expectedUsernames,
+                                     @Value("${users.username-filter.false-positive-rate:0.01}")
+                                     double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedUsernames = expectedUsernames;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public boolean isTaken(String username) {
+        if (!filter().mightContain(username)) {
+            return false;
+        }
+        boolean taken = userRepository.existsByUsername(username);
+        if (!taken) {
+            observedFalsePositives.incrementAndGet();
+        }
+        return taken;
+    }
+
+    @Override
+    public void add(String username) {
+        filter().put(username);
+    }
+
+    /**
+     * Reloads the usernames, dropping the deleted and renamed ones a Bloom filter cannot forget and adding the ones
+     * registered by the other instances. The first run seeds the filter at startup.
+     */
+    @Scheduled(fixedDelayString = "${users.username-filter.rebuild-interval:1h}")
+    public synchronized void rebuild() {
+        // sized for the current table if it outgrew the configured expectation, so the false-positive rate holds
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedUsernames, 2 * userRepository.count()),
+                falsePositiveRate);
+        long after = 0;
+        List<UserSummary> users;
+        do {
+            users = userRepository.findSummariesAfter(after, null, null, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (UserSummary user : users) {
+                rebuilt.put(user.username());
+                after = user.id();
+            }
+        } while (users.size() == REBUILD_PAGE_SIZE);
+        // usernames added while the table was read may be missing, in which case only their hashing is not saved
+        filter = rebuilt;
+        log.info("Rebuilt username filter with {} entries", rebuilt.getInsertions());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        filterGauge("username.filter.size", BloomFilter::getSizeInBytes)
+                .description("Memory used by the username filter")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        filterGauge("username.filter.entries", BloomFilter::getInsertions)
+                .description("Usernames held by the username filter")
+                .register(registry);
+        FunctionCounter.builder("username.filter.false-positives", observedFalsePositives, AtomicLong::get)
+                       .description("Filter hits for usernames that turned out to be free")
+                       .register(registry);
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                if (filter == null) {
+                    rebuild();
+                }
+                current = filter;
+            }
+        }
+        return current;
+    }
+
+    private Gauge.Builder<UsernameFilterServiceImpl> filterGauge(String name, ToDoubleFunction<BloomFilter> value) {
+        return Gauge.builder(name, this, service -> {
+            BloomFilter current = service.filter;
+            return current == null ? 0 : value.applyAsDouble(current);
+        });
+    }
+}
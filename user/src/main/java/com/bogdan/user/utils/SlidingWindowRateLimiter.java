@@ -0,0 +1,126 @@
+package com.bogdan.user.utils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of attempts per key within a sliding window. Each key keeps only the counts of the current and
+ * the previous fixed window, and the previous count is weighted by how much of it still overlaps the sliding window.
+ * Keys are spread over independently locked stripes so that attempts for different keys rarely contend.
+ */
+public class SlidingWindowRateLimiter {
+
+    // rough heap cost of a map entry, its counters and the key string header, on top of the key characters
+    private static final int ENTRY_OVERHEAD_BYTES = 112;
+
+    private final int limit;
+
+    private final long windowMillis;
+
+    private final Stripe[] stripes;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong keyBytes = new AtomicLong();
+
+    public SlidingWindowRateLimiter(int limit, Duration window, int concurrency) {
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records an attempt for the key, unless the key already reached the limit in the sliding window ending now.
+     *
+     * @return whether the attempt is allowed
+     */
+    public boolean tryAcquire(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        double previousWeight = 1 - (double) (nowMillis % windowMillis) / windowMillis;
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Counter counter = stripe.counters.get(key);
+            if (counter == null) {
+                counter = new Counter(window);
+                stripe.counters.put(key, counter);
+                size.incrementAndGet();
+                keyBytes.addAndGet(key.length());
+            }
+            counter.advanceTo(window);
+            if (counter.current + counter.previous * previousWeight >= limit) {
+                return false;
+            }
+            counter.current++;
+            return true;
+        }
+    }
+
+    /**
+     * Drops the keys that have no attempts left in the sliding window.
+     */
+    public void evictExpired(long nowMillis) {
+        long window = nowMillis / windowMillis;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<String, Counter>> entries = stripe.counters.entrySet()
+                                                                            .iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<String, Counter> entry = entries.next();
+                    if (entry.getValue().window < window - 1) {
+                        entries.remove();
+                        size.decrementAndGet();
+                        keyBytes.addAndGet(-entry.getKey()
+                                                 .length());
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long estimatedSizeInBytes() {
+        return (long) size.get() * ENTRY_OVERHEAD_BYTES + keyBytes.get();
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final Map<String, Counter> counters = new HashMap<>();
+    }
+
+    private static final class Counter {
+
+        private long window;
+
+        private int current;
+
+        private int previous;
+
+        private Counter(long window) {
+            this.window = window;
+        }
+
+        private void advanceTo(long newWindow) {
+            if (newWindow == window) {
+                return;
+            }
+            previous = newWindow == window + 1 ? current : 0;
+            current = 0;
+            window = newWindow;
+        }
+    }
+}
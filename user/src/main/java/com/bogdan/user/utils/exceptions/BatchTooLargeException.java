@@ -0,0 +1,8 @@
+package com.bogdan.user.utils.exceptions;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
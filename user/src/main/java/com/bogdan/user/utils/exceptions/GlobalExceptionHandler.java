@@ -1,5 +1,6 @@
 package com.bogdan.user.utils.exceptions;
 
+import io.jsonwebtoken.JwtException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,4 +21,40 @@ public class GlobalExceptionHandler {
     public String handleBadCredentialsException(Exception ex) {
         return ex.getMessage();
     }
+
+    @ExceptionHandler(JwtException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public String handleJwtException(JwtException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleBatchTooLargeException(BatchTooLargeException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handleHashingCapacityExceededException(HashingCapacityExceededException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handleTooManyLoginAttemptsException(TooManyLoginAttemptsException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(UsernameAlreadyExistsException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleUsernameAlreadyExistsException(UsernameAlreadyExistsException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public String handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        return ex.getMessage();
+    }
 }
@@ -0,0 +1,8 @@
+package com.bogdan.user.utils.exceptions;
+
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
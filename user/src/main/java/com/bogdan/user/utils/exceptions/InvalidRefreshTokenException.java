@@ -0,0 +1,8 @@
+package com.bogdan.user.utils.exceptions;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bogdan.user.utils.exceptions;
+
+import io.jsonwebtoken.JwtException;
+
+public class TokenRevokedException extends JwtException {
+
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bogdan.user.utils.exceptions;
+
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    public TooManyLoginAttemptsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bogdan.user.utils.exceptions;
+
+public class UsernameAlreadyExistsException extends RuntimeException {
+
+    public UsernameAlreadyExistsException(String message) {
+        super(message);
+    }
+}
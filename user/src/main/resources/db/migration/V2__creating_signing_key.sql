@@ -0,0 +1,9 @@
+CREATE TABLE signing_key
+(
+    kid         VARCHAR(64) NOT NULL,
+    public_key  TEXT        NOT NULL,
+    private_key TEXT        NOT NULL,
+    created_at  DATETIME(6) NOT NULL,
+    retired_at  DATETIME(6) NULL,
+    CONSTRAINT pk_signing_key PRIMARY KEY (kid)
+);
@@ -0,0 +1,25 @@
+CREATE TABLE issued_token
+(
+    jti        VARCHAR(64)  NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    CONSTRAINT pk_issued_token PRIMARY KEY (jti)
+);
+
+CREATE INDEX idx_issued_token_username ON issued_token (username);
+
+CREATE INDEX idx_issued_token_expires_at ON issued_token (expires_at);
+
+CREATE TABLE revoked_token
+(
+    id         BIGINT AUTO_INCREMENT NOT NULL,
+    jti        VARCHAR(64)           NOT NULL,
+    expires_at DATETIME(6)           NOT NULL,
+    revoked_at DATETIME(6)           NOT NULL,
+    CONSTRAINT pk_revoked_token PRIMARY KEY (id)
+);
+
+ALTER TABLE revoked_token
+    ADD CONSTRAINT uc_revoked_token_jti UNIQUE (jti);
+
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token (expires_at);
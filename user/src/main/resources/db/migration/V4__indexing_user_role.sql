@@ -0,0 +1 @@
+CREATE INDEX idx_user_role_id ON user (`role`, id);
@@ -0,0 +1,15 @@
+CREATE TABLE refresh_token
+(
+    id         BIGINT AUTO_INCREMENT NOT NULL,
+    token_hash VARCHAR(64)           NOT NULL,
+    username   VARCHAR(255)          NOT NULL,
+    expires_at DATETIME(6)           NOT NULL,
+    CONSTRAINT pk_refresh_token PRIMARY KEY (id)
+);
+
+ALTER TABLE refresh_token
+    ADD CONSTRAINT uc_refresh_token_token_hash UNIQUE (token_hash);
+
+CREATE INDEX idx_refresh_token_username ON refresh_token (username);
+
+CREATE INDEX idx_refresh_token_expires_at ON refresh_token (expires_at);
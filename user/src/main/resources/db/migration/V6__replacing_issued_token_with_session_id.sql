@@ -0,0 +1,10 @@
+ALTER TABLE user
+    ADD session_id VARCHAR(36) NULL;
+
+UPDATE user
+SET session_id = UUID();
+
+ALTER TABLE user
+    MODIFY session_id VARCHAR(36) NOT NULL;
+
+DROP TABLE issued_token;
@@ -0,0 +1,119 @@
+package com.bogdan.user.benchmarks;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.RevokedTokenRepository;
+import com.bogdan.user.persistence.repositories.SigningKeyRepository;
+import com.bogdan.user.service.impl.JwtServiceImpl;
+import com.bogdan.user.service.impl.SigningKeyServiceImpl;
+import com.bogdan.user.service.impl.TokenRevocationServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parse-per-claim validation path with the parse-once pipeline of {@link JwtServiceImpl}.
+ * Run with {@code mvn -pl user test-compile} followed by {@link #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtServiceImpl jwtService;
+
+    private PublicKey publicKey;
+
+    private UserDetails user;
+
+    private String token;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SigningKeyRepository signingKeyRepository = Mockito.mock(SigningKeyRepository.class);
+        Mockito.when(signingKeyRepository.save(ArgumentMatchers.any()))
+               .then(AdditionalAnswers.returnsFirstArg());
+        // nothing is revoked, so validation goes through the Bloom filter fast path only
+        TokenRevocationServiceImpl tokenRevocationService = new TokenRevocationServiceImpl(
+                Mockito.mock(RevokedTokenRepository.class), 100_000, 0.01, 100, Duration.ofMinutes(15));
+        jwtService = new JwtServiceImpl(
+                new SigningKeyServiceImpl(signingKeyRepository, Duration.ofDays(7), Duration.ofHours(1)),
+                tokenRevocationService, Duration.ofMinutes(15));
+        user = User.builder()
+                   .id(1L)
+                   .username("user")
+                   .role(Role.USER)
+                   .build();
+        token = jwtService.generateToken(user);
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) jwtService.getVerificationKeys()
+                                                                               .get("keys");
+        Jwk<?> jwk = Jwks.builder()
+                         .add(keys.get(0))
+                         .build();
+        publicKey = (PublicKey) jwk.toKey();
+    }
+
+    @Benchmark
+    public String mintToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateTokenParsePerClaim() {
+        String username = parseWithFreshParser().getSubject();
+        Date expiration = parseWithFreshParser().getExpiration();
+        return username.equals(user.getUsername()) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean validateTokenParseOnce() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public UserDetails extractUserDetails() {
+        return jwtService.extractUserDetails(token);
+    }
+
+    private Claims parseWithFreshParser() {
+        return Jwts.parser()
+                   .verifyWith(publicKey)
+                   .build()
+                   .parseSignedClaims(token)
+                   .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
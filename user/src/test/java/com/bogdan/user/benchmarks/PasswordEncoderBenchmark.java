@@ -0,0 +1,72 @@
+package com.bogdan.user.benchmarks;
+
+import com.bogdan.user.utils.PasswordEncoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports hashes per second for each password hashing configuration, to pick the highest cost that still meets the
+ * login latency target on the machine the service is deployed on. A single thread maps to one hashing pool thread,
+ * so multiply by the pool size for the capacity of an instance. Run with {@code mvn -pl user test-compile} followed
+ * by {@link #main(String[])} on the test classpath; pass other values with {@code -p configuration=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"bcrypt-10", "bcrypt-12", "argon2-19456-2-1", "pbkdf2-600000"})
+    public String configuration;
+
+    private PasswordEncoder encoder;
+
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] settings = configuration.split("-");
+        encoder = switch (settings[0]) {
+            case PasswordEncoders.BCRYPT -> PasswordEncoders.bcrypt(Integer.parseInt(settings[1]));
+            case PasswordEncoders.ARGON2 -> PasswordEncoders.argon2(Integer.parseInt(settings[1]),
+                    Integer.parseInt(settings[2]), Integer.parseInt(settings[3]));
+            case PasswordEncoders.PBKDF2 -> PasswordEncoders.pbkdf2(Integer.parseInt(settings[1]));
+            default -> throw new IllegalArgumentException("Unknown configuration " + configuration);
+        };
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordEncoderBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
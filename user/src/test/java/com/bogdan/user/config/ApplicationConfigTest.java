@@ -0,0 +1,82 @@
+package com.bogdan.user.config;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.impl.UserDetailsCacheServiceImpl;
+import com.bogdan.user.utils.PasswordEncoders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationConfigTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ApplicationConfig config;
+
+    private final PasswordEncoder passwordEncoder = PasswordEncoders.delegating(PasswordEncoders.BCRYPT,
+            PasswordEncoders.bcrypt(5), PasswordEncoders.argon2(1024, 1, 1), PasswordEncoders.pbkdf2(1000));
+
+    @BeforeEach
+    void setUp() {
+        config = new ApplicationConfig(userRepository,
+                new UserDetailsCacheServiceImpl(userRepository, 100, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void authenticate_whenStoredHashIsBelowPolicy_storeRehashedPassword() {
+        //Arrange
+        User user = new User(1L, "user", PasswordEncoders.bcrypt(4)
+                                                         .encode("password"), Role.USER);
+        doReturn(Optional.of(user)).when(userRepository)
+                                   .findByUsername("user");
+        doReturn(user).when(userRepository)
+                      .save(any(User.class));
+        AuthenticationProvider provider = config.authenticationProvider(passwordEncoder);
+
+        //Act
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user", "password"));
+
+        //Assert
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository, times(1)).save(captor.capture());
+        assertThat(captor.getValue()
+                         .getPassword()).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("password", captor.getValue()
+                                                              .getPassword())).isTrue();
+    }
+
+    @Test
+    void authenticate_whenStoredHashMeetsPolicy_keepStoredPassword() {
+        //Arrange
+        User user = new User(1L, "user", passwordEncoder.encode("password"), Role.USER);
+        doReturn(Optional.of(user)).when(userRepository)
+                                   .findByUsername("user");
+        AuthenticationProvider provider = config.authenticationProvider(passwordEncoder);
+
+        //Act
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user", "password"));
+
+        //Assert
+        verify(userRepository, never()).save(any(User.class));
+    }
+}
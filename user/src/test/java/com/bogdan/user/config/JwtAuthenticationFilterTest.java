@@ -0,0 +1,154 @@
+package com.bogdan.user.config;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.service.AuthenticationCacheService;
+import com.bogdan.user.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private AuthenticationCacheService authenticationCacheService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final Claims claims = Jwts.claims()
+                                      .id("token-id")
+                                      .subject("user")
+                                      .expiration(new Date(System.currentTimeMillis() + 60_000))
+                                      .build();
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_validToken_authenticateFromClaimsWithoutLoadingUser() throws Exception {
+        //Arrange
+        User tokenUser = new User(1L, "user", null, Role.USER);
+        doReturn(Optional.empty()).when(authenticationCacheService)
+                                  .get("token");
+        doReturn(claims).when(jwtService)
+                        .verifyToken("token");
+        doReturn(tokenUser).when(jwtService)
+                           .extractUserDetails(claims);
+
+        //Act
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        //Assert
+        Authentication authentication = SecurityContextHolder.getContext()
+                                                             .getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("user");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                                                   .containsExactly("USER");
+        verifyNoInteractions(userDetailsService);
+        verify(authenticationCacheService, times(1)).put("token", "token-id", claims.getExpiration(), tokenUser);
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_tokenResolvedBefore_authenticateWithoutVerifyingTheToken() throws Exception {
+        //Arrange
+        doReturn(Optional.of(new User(1L, "user", null, Role.USER))).when(authenticationCacheService)
+                                                                    .get("token");
+
+        //Act
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        //Assert
+        assertThat(SecurityContextHolder.getContext()
+                                        .getAuthentication()
+                                        .getName()).isEqualTo("user");
+        verifyNoInteractions(jwtService, userDetailsService);
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_loadUserEnabledAndRoleChanged_doNotAuthenticate() throws Exception {
+        //Arrange
+        ReflectionTestUtils.setField(filter, "loadUser", true);
+        doReturn(Optional.empty()).when(authenticationCacheService)
+                                  .get("token");
+        doReturn(claims).when(jwtService)
+                        .verifyToken("token");
+        doReturn(new User(1L, "user", null, Role.ADMIN)).when(jwtService)
+                                                        .extractUserDetails(claims);
+        doReturn(new User(1L, "user", "password", Role.USER)).when(userDetailsService)
+                                                             .loadUserByUsername("user");
+
+        //Act
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        //Assert
+        assertThat(SecurityContextHolder.getContext()
+                                        .getAuthentication()).isNull();
+        verify(authenticationCacheService, never()).put(any(), any(), any(), any());
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_invalidToken_doNotAuthenticate() throws Exception {
+        //Arrange
+        doReturn(Optional.empty()).when(authenticationCacheService)
+                                  .get("token");
+        doThrow(ExpiredJwtException.class).when(jwtService)
+                                          .verifyToken("token");
+
+        //Act
+        filter.doFilter(bearerRequest(), new MockHttpServletResponse(), filterChain);
+
+        //Assert
+        assertThat(SecurityContextHolder.getContext()
+                                        .getAuthentication()).isNull();
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest bearerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        return request;
+    }
+}
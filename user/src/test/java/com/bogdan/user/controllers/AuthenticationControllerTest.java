@@ -1,12 +1,23 @@
 package com.bogdan.user.controllers;
 
 import com.bogdan.user.controllers.api.AuthenticationController;
+import com.bogdan.user.controllers.models.BatchValidationRequest;
 import com.bogdan.user.controllers.models.LoginRequest;
 import com.bogdan.user.controllers.models.LoginResponse;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.RevokedTokenEntry;
+import com.bogdan.user.controllers.models.TokenValidationResult;
 import com.bogdan.user.controllers.models.ValidationResponse;
 import com.bogdan.user.service.AuthenticationService;
+import com.bogdan.user.service.AuthenticationCacheService;
 import com.bogdan.user.service.JwtService;
+import com.bogdan.user.utils.exceptions.BatchTooLargeException;
+import com.bogdan.user.utils.exceptions.InvalidRefreshTokenException;
+import com.bogdan.user.utils.exceptions.HashingCapacityExceededException;
+import com.bogdan.user.utils.exceptions.TooManyLoginAttemptsException;
+import com.bogdan.user.utils.exceptions.UsernameAlreadyExistsException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,15 +27,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +57,9 @@ class AuthenticationControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private AuthenticationCacheService authenticationCacheService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -58,18 +79,63 @@ class AuthenticationControllerTest {
                                                  .username("alen")
                                                  .password("pass")
                                                  .build();
+        doReturn(CompletableFuture.completedFuture(null)).when(service)
+                                                         .registerUser(request);
 
         //Act
-        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-user")
-                                                                       .contentType(MediaType.APPLICATION_JSON)
-                                                                       .content(objectMapper.writeValueAsString(
-                                                                               request)));
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-user")
+                                                                 .contentType(MediaType.APPLICATION_JSON)
+                                                                 .content(objectMapper.writeValueAsString(request)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isCreated());
         verify(service, times(1)).registerUser(request);
     }
 
+    @Test
+    void registerNewUser_usernameIsTaken_returnStatusConflict() throws Exception {
+        //Arrange
+        RegisterRequest request = RegisterRequest.builder()
+                                                 .username("alen")
+                                                 .password("pass")
+                                                 .build();
+        doThrow(new UsernameAlreadyExistsException("Username alen is already taken")).when(service)
+                                                                                     .registerUser(request);
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-user")
+                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                        .content(objectMapper.writeValueAsString(
+                                                                                request)));
+
+        //Assert
+        response.andExpect(status().isConflict());
+    }
+
+    @Test
+    void registerNewUser_usernameIsTakenOnSave_returnStatusConflict() throws Exception {
+        //Arrange
+        RegisterRequest request = RegisterRequest.builder()
+                                                 .username("alen")
+                                                 .password("pass")
+                                                 .build();
+        doReturn(CompletableFuture.failedFuture(
+                new CompletionException(new UsernameAlreadyExistsException("Username alen is already taken")))).when(
+                service).registerUser(request);
+
+        //Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-user")
+                                                                 .contentType(MediaType.APPLICATION_JSON)
+                                                                 .content(objectMapper.writeValueAsString(request)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        //Assert
+        response.andExpect(status().isConflict());
+    }
+
     @Test
     void registerNewAdmin_registerRequestProvided_returnStatusCreated() throws Exception {
         //Arrange
@@ -77,12 +143,15 @@ class AuthenticationControllerTest {
                                                  .username("alen")
                                                  .password("pass")
                                                  .build();
+        doReturn(CompletableFuture.completedFuture(null)).when(service)
+                                                         .registerAdmin(request);
 
         //Act
-        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-admin")
-                                                                       .contentType(MediaType.APPLICATION_JSON)
-                                                                       .content(objectMapper.writeValueAsString(
-                                                                               request)));
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/register-admin")
+                                                                 .contentType(MediaType.APPLICATION_JSON)
+                                                                 .content(objectMapper.writeValueAsString(request)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isCreated());
@@ -96,15 +165,16 @@ class AuthenticationControllerTest {
                                            .username("alen")
                                            .password("pass")
                                            .build();
-        LoginResponse loginResponse = new LoginResponse("token");
-        doReturn(loginResponse).when(service)
-                               .login(request);
+        LoginResponse loginResponse = new LoginResponse("token", "refresh token");
+        doReturn(CompletableFuture.completedFuture(loginResponse)).when(service)
+                                                                  .login(request, "127.0.0.1");
 
         //Act
-        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/login")
-                                                                       .contentType(MediaType.APPLICATION_JSON)
-                                                                       .content(objectMapper.writeValueAsString(
-                                                                               request)));
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/login")
+                                                                 .contentType(MediaType.APPLICATION_JSON)
+                                                                 .content(objectMapper.writeValueAsString(request)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isOk())
@@ -119,8 +189,29 @@ class AuthenticationControllerTest {
                                            .password("password")
                                            .build();
 
-        doThrow(BadCredentialsException.class).when(service)
-                                              .login(request);
+        doReturn(CompletableFuture.failedFuture(new BadCredentialsException("Bad credentials"))).when(service)
+                                                                                                .login(request, "127.0.0.1");
+
+        //Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/login")
+                                                                 .contentType(MediaType.APPLICATION_JSON)
+                                                                 .content(objectMapper.writeValueAsString(request)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        //Assert
+        response.andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void login_tooManyAttempts_returnStatusTooManyRequests() throws Exception {
+        //Arrange
+        LoginRequest request = LoginRequest.builder()
+                                           .username("user")
+                                           .password("password")
+                                           .build();
+        doThrow(TooManyLoginAttemptsException.class).when(service)
+                                                    .login(request, "127.0.0.1");
 
         //Act
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/login")
@@ -128,6 +219,62 @@ class AuthenticationControllerTest {
                                                                        .content(objectMapper.writeValueAsString(
                                                                                request)));
 
+        //Assert
+        response.andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void login_serviceIsSaturated_returnStatusTooManyRequests() throws Exception {
+        //Arrange
+        LoginRequest request = LoginRequest.builder()
+                                           .username("user")
+                                           .password("password")
+                                           .build();
+        doThrow(HashingCapacityExceededException.class).when(service)
+                                                       .login(request, "127.0.0.1");
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/login")
+                                                                       .contentType(MediaType.APPLICATION_JSON)
+                                                                       .content(objectMapper.writeValueAsString(
+                                                                               request)));
+
+        //Assert
+        response.andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void refresh_refreshTokenProvided_returnsTokensAndOkStatus() throws Exception {
+        //Arrange
+        RefreshRequest request = new RefreshRequest("refresh token");
+        LoginResponse loginResponse = new LoginResponse("token", "new refresh token");
+        doReturn(loginResponse).when(service)
+                               .refresh(request);
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/refresh")
+                                                                       .contentType(MediaType.APPLICATION_JSON)
+                                                                       .content(objectMapper.writeValueAsString(
+                                                                               request)));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(loginResponse)));
+    }
+
+    @Test
+    void refresh_serviceThrowsInvalidRefreshTokenException_returnStatusUnauthorised() throws Exception {
+        //Arrange
+        RefreshRequest request = new RefreshRequest("refresh token");
+        doThrow(new InvalidRefreshTokenException("Invalid refresh token")).when(service)
+                                                                          .refresh(request);
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/refresh")
+                                                                       .contentType(MediaType.APPLICATION_JSON)
+                                                                       .content(objectMapper.writeValueAsString(
+                                                                               request)));
+
         //Assert
         response.andExpect(status().isUnauthorized());
     }
@@ -150,5 +297,96 @@ class AuthenticationControllerTest {
         response.andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(validationResponse)));
     }
-}
 
+    @Test
+    void getVerificationKeys_returnsKeySetAndOkStatus() throws Exception {
+        //Arrange
+        Map<String, Object> keys = Map.of("keys", List.of(Map.of("kty", "RSA", "kid", "key-id")));
+        doReturn(keys).when(service)
+                      .getVerificationKeys();
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/authentications/jwks"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(keys)));
+    }
+
+    @Test
+    void validateTokens_tokensProvided_returnsResultPerTokenAndOkStatus() throws Exception {
+        //Arrange
+        BatchValidationRequest request = BatchValidationRequest.builder()
+                                                               .tokens(List.of("valid", "invalid"))
+                                                               .build();
+        List<TokenValidationResult> results = List.of(TokenValidationResult.builder()
+                                                                           .validation(new ValidationResponse("USER",
+                                                                                   "bob"))
+                                                                           .build(),
+                TokenValidationResult.builder()
+                                     .rejection("Invalid token")
+                                     .build());
+        doReturn(results).when(service)
+                         .validateTokens(request.tokens());
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/validate/batch")
+                                                                       .contentType(MediaType.APPLICATION_JSON)
+                                                                       .content(objectMapper.writeValueAsString(
+                                                                               request)));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
+    }
+
+    @Test
+    void validateTokens_serviceThrowsBatchTooLargeException_returnStatusBadRequest() throws Exception {
+        //Arrange
+        BatchValidationRequest request = BatchValidationRequest.builder()
+                                                               .tokens(List.of("token"))
+                                                               .build();
+        doThrow(BatchTooLargeException.class).when(service)
+                                             .validateTokens(request.tokens());
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/validate/batch")
+                                                                       .contentType(MediaType.APPLICATION_JSON)
+                                                                       .content(objectMapper.writeValueAsString(
+                                                                               request)));
+
+        //Assert
+        response.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void logout_bearerTokenProvided_revokeTokenAndReturnStatusNoContent() throws Exception {
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/authentications/logout")
+                                                                       .header("Authorization", "Bearer token"));
+
+        //Assert
+        response.andExpect(status().isNoContent());
+        verify(service, times(1)).logout("token");
+    }
+
+    @Test
+    void getRevocations_cursorProvided_returnsDeltaAndOkStatus() throws Exception {
+        //Arrange
+        RevocationDelta delta = RevocationDelta.builder()
+                                               .revocations(List.of(new RevokedTokenEntry("token-id", 1700000000L)))
+                                               .cursor(8L)
+                                               .build();
+        doReturn(delta).when(service)
+                       .getRevocations(7L, 100);
+
+        //Act
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/authentications/revocations")
+                                                                       .param("after", "7")
+                                                                       .param("limit", "100"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(delta)));
+    }
+}
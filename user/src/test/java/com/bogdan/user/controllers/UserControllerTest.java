@@ -2,14 +2,22 @@ package com.bogdan.user.controllers;
 
 import com.bogdan.user.controllers.api.UserController;
 import com.bogdan.user.controllers.models.GetUser;
+import com.bogdan.user.controllers.models.ImportFailure;
+import com.bogdan.user.controllers.models.ImportFormat;
+import com.bogdan.user.controllers.models.ImportReport;
 import com.bogdan.user.controllers.models.UpdateUser;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.controllers.models.UserSummary;
+import com.bogdan.user.service.AuthenticationCacheService;
 import com.bogdan.user.service.JwtService;
+import com.bogdan.user.service.UserImportService;
 import com.bogdan.user.service.UserService;
 import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.utils.exceptions.UserNotFoundException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -20,7 +28,6 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.Mockito.doReturn;
@@ -28,8 +35,10 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -38,9 +47,15 @@ class UserControllerTest {
     @MockBean
     private UserService service;
 
+    @MockBean
+    private UserImportService userImportService;
+
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private AuthenticationCacheService authenticationCacheService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -56,28 +71,42 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_serviceReturnsAllUsers_returnStatusOkAndAllUsersList() throws Exception {
+    void getUsers_serviceReturnsPage_returnStatusOkAndPage() throws Exception {
+        //Arrange
+        UserPage page = UserPage.builder()
+                                .users(List.of(new UserSummary(3L, "user1", Role.ADMIN),
+                                        new UserSummary(4L, "user2", Role.ADMIN)))
+                                .nextCursor(4L)
+                                .build();
+        doReturn(page).when(service)
+                      .getUsers(2L, 2, Role.ADMIN, "user");
+
+        //Act
+        ResultActions response = mvc.perform(get("/api/users").param("after", "2")
+                                                              .param("limit", "2")
+                                                              .param("role", "ADMIN")
+                                                              .param("username", "user"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(page)));
+    }
+
+    @Test
+    void getUsers_withoutParameters_requestFirstPage() throws Exception {
         //Arrange
-        List<GetUser> users = new ArrayList<>();
-        users.add(GetUser.builder()
-                         .username("user1")
-                         .password("password1")
-                         .role(Role.ADMIN)
-                         .build());
-        users.add(GetUser.builder()
-                         .username("user2")
-                         .password("password2")
-                         .role(Role.USER)
-                         .build());
-        doReturn(users).when(service)
-                       .getAllUsers();
+        UserPage page = UserPage.builder()
+                                .users(List.of())
+                                .build();
+        doReturn(page).when(service)
+                      .getUsers(0L, 20, null, null);
 
         //Act
         ResultActions response = mvc.perform(get("/api/users"));
 
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(users)));
+                .andExpect(content().json(objectMapper.writeValueAsString(page)));
     }
 
     @Test
@@ -86,7 +115,6 @@ class UserControllerTest {
         long userId = 1;
         GetUser user = GetUser.builder()
                               .username("user2")
-                              .password("password2")
                               .role(Role.USER)
                               .build();
         doReturn(user).when(service)
@@ -97,7 +125,8 @@ class UserControllerTest {
 
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(user)));
+                .andExpect(content().json(objectMapper.writeValueAsString(user)))
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
@@ -167,4 +196,45 @@ class UserControllerTest {
         //Assert
         response.andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void importUsers_csvBody_returnStatusOkAndReport() throws Exception {
+        //Arrange
+        ImportReport report = ImportReport.builder()
+                                          .imported(1)
+                                          .failed(1)
+                                          .failures(List.of(new ImportFailure(2, "user", "Username already exists")))
+                                          .rowsPerSecond(10)
+                                          .build();
+        doReturn(report).when(userImportService)
+                        .importUsers(ArgumentMatchers.any(), ArgumentMatchers.eq(ImportFormat.CSV));
+
+        //Act
+        ResultActions response = mvc.perform(post("/api/users/import").contentType("text/csv")
+                                                                       .content("new,password\nuser,password"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(report)));
+    }
+
+    @Test
+    void importUsers_ndjsonBody_importAsNdjson() throws Exception {
+        //Arrange
+        ImportReport report = ImportReport.builder()
+                                          .imported(1)
+                                          .failures(List.of())
+                                          .build();
+        doReturn(report).when(userImportService)
+                        .importUsers(ArgumentMatchers.any(), ArgumentMatchers.eq(ImportFormat.NDJSON));
+
+        //Act
+        ResultActions response = mvc.perform(post("/api/users/import").contentType("application/x-ndjson")
+                                                                       .content("{\"username\":\"new\"," +
+                                                                               "\"password\":\"password\"}"));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(report)));
+    }
+}
@@ -1,22 +1,27 @@
 package com.bogdan.user.integration;
 
 import com.bogdan.user.controllers.models.LoginRequest;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
 import com.bogdan.user.controllers.models.ValidationResponse;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.RefreshTokenRepository;
 import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.RefreshTokenService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -28,11 +33,18 @@ class AuthenticationControllerIntTest extends IntTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     private final String baseUrl = "http://localhost:" + port + "/api/authentications";
 
     @AfterEach
     void tearDown() {
         userRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
     }
 
     @Test
@@ -41,10 +53,10 @@ class AuthenticationControllerIntTest extends IntTest {
         RegisterRequest registerRequest = new RegisterRequest("user", "password");
 
         //Act
-        ResultActions response = mockMvc.perform(post(baseUrl + "/register-user").contentType(
-                                                                                         MediaType.APPLICATION_JSON)
-                                                                                 .content(mapper.writeValueAsString(
-                                                                                         registerRequest)));
+        MvcResult result = mockMvc.perform(post(baseUrl + "/register-user").contentType(MediaType.APPLICATION_JSON)
+                                                                   .content(mapper.writeValueAsString(registerRequest)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isCreated());
@@ -61,10 +73,10 @@ class AuthenticationControllerIntTest extends IntTest {
         RegisterRequest registerRequest = new RegisterRequest("user", "password");
 
         //Act
-        ResultActions response = mockMvc.perform(post(baseUrl + "/register-admin").contentType(
-                                                                                          MediaType.APPLICATION_JSON)
-                                                                                  .content(mapper.writeValueAsString(
-                                                                                          registerRequest)));
+        MvcResult result = mockMvc.perform(post(baseUrl + "/register-admin").contentType(MediaType.APPLICATION_JSON)
+                                                                   .content(mapper.writeValueAsString(registerRequest)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isCreated());
@@ -83,14 +95,16 @@ class AuthenticationControllerIntTest extends IntTest {
                 new User(null, loginRequest.username(), encoder.encode(loginRequest.password()), Role.ADMIN));
 
         //Act
-        ResultActions response = mockMvc.perform(post(baseUrl + "/login").contentType(MediaType.APPLICATION_JSON)
-                                                                         .content(mapper.writeValueAsString(
-                                                                                 loginRequest)));
+        MvcResult result = mockMvc.perform(post(baseUrl + "/login").contentType(MediaType.APPLICATION_JSON)
+                                                                   .content(mapper.writeValueAsString(loginRequest)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").exists())
-                .andExpect(jsonPath("$.token", matchesPattern("^[\\w-]*\\.[\\w-]*\\.[\\w-]*$")));
+                .andExpect(jsonPath("$.token", matchesPattern("^[\\w-]*\\.[\\w-]*\\.[\\w-]*$")))
+                .andExpect(jsonPath("$.refreshToken").exists());
     }
 
     @Test
@@ -99,14 +113,34 @@ class AuthenticationControllerIntTest extends IntTest {
         LoginRequest loginRequest = new LoginRequest("user", "password");
 
         //Act
-        ResultActions response = mockMvc.perform(post(baseUrl + "/login").contentType(MediaType.APPLICATION_JSON)
-                                                                         .content(mapper.writeValueAsString(
-                                                                                 loginRequest)));
+        MvcResult result = mockMvc.perform(post(baseUrl + "/login").contentType(MediaType.APPLICATION_JSON)
+                                                                   .content(mapper.writeValueAsString(loginRequest)))
+                                  .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         //Assert
         response.andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void refresh_refreshTokenIsUsedTwice_secondRefreshResponseStatusUnauthorised() throws Exception {
+        //Arrange
+        User user = userRepository.save(new User(null, "user", encoder.encode("password"), Role.USER));
+        String body = mapper.writeValueAsString(new RefreshRequest(refreshTokenService.issue(user.getUsername())));
+
+        //Act
+        ResultActions response = mockMvc.perform(post(baseUrl + "/refresh").contentType(MediaType.APPLICATION_JSON)
+                                                                           .content(body));
+        ResultActions reused = mockMvc.perform(post(baseUrl + "/refresh").contentType(MediaType.APPLICATION_JSON)
+                                                                         .content(body));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.refreshToken").exists());
+        reused.andExpect(status().isUnauthorized());
+    }
+
     @Test
     void validateToken_tokenIsValid_returnValidationResponseAndResponseStatusOk() throws Exception {
         //Arrange
@@ -12,6 +12,7 @@ import org.springframework.boot.testcontainers.service.connection.ServiceConnect
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -26,6 +27,10 @@ public abstract class IntTest {
     @ServiceConnection
     protected static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:9.0.1");
 
+    @Container
+    @ServiceConnection
+    protected static RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13.6-management");
+
     @Autowired
     protected MockMvc mockMvc;
 
@@ -2,6 +2,8 @@ package com.bogdan.user.integration;
 
 import com.bogdan.user.controllers.models.GetUser;
 import com.bogdan.user.controllers.models.UpdateUser;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.controllers.models.UserSummary;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.persistence.repositories.UserRepository;
@@ -21,8 +23,10 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class UserControllerIntTest extends IntTest {
@@ -58,22 +62,47 @@ class UserControllerIntTest extends IntTest {
     }
 
     @Test
-    void getAllUsers_responseStatusOkAndReturnList() throws Exception {
+    void getUsers_responseStatusOkAndReturnPagesWithoutPasswords() throws Exception {
         //Arrange
-        List<GetUser> expectedUserList = usersList.stream()
-                                                  .map(user -> GetUser.builder()
-                                                                      .username(user.getUsername())
-                                                                      .password(user.getPassword())
-                                                                      .role(user.getRole())
-                                                                      .build())
-                                                  .toList();
+        UserPage expectedFirstPage = UserPage.builder()
+                                             .users(List.of(new UserSummary(1L, "user1", Role.USER),
+                                                     new UserSummary(2L, "user2", Role.USER)))
+                                             .nextCursor(2L)
+                                             .build();
+        UserPage expectedLastPage = UserPage.builder()
+                                            .users(List.of(new UserSummary(4L, "user3", Role.USER)))
+                                            .build();
 
         //Act
-        ResultActions response = mockMvc.perform(get(baseUrl).headers(headers));
+        ResultActions firstPage = mockMvc.perform(get(baseUrl).headers(headers)
+                                                              .param("limit", "2")
+                                                              .param("role", "USER"));
+        ResultActions lastPage = mockMvc.perform(get(baseUrl).headers(headers)
+                                                             .param("after", "2")
+                                                             .param("limit", "2")
+                                                             .param("role", "USER"));
+
+        //Assert
+        firstPage.andExpect(status().isOk())
+                 .andExpect(content().json(mapper.writeValueAsString(expectedFirstPage), true));
+        lastPage.andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(expectedLastPage)));
+    }
+
+    @Test
+    void getUsers_withUsernamePrefix_returnMatchingUsers() throws Exception {
+        //Arrange
+        UserPage expectedPage = UserPage.builder()
+                                        .users(List.of(new UserSummary(3L, "admin", Role.ADMIN)))
+                                        .build();
+
+        //Act
+        ResultActions response = mockMvc.perform(get(baseUrl).headers(headers)
+                                                             .param("username", "adm"));
 
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(mapper.writeValueAsString(expectedUserList)));
+                .andExpect(content().json(mapper.writeValueAsString(expectedPage)));
     }
 
     @Test
@@ -83,8 +112,6 @@ class UserControllerIntTest extends IntTest {
         GetUser user = GetUser.builder()
                               .username(usersList.get(1)
                                                  .getUsername())
-                              .password(usersList.get(1)
-                                                 .getPassword())
                               .role(usersList.get(1)
                                              .getRole())
                               .build();
@@ -94,7 +121,8 @@ class UserControllerIntTest extends IntTest {
 
         //Assert
         response.andExpect(status().isOk())
-                .andExpect(content().json(mapper.writeValueAsString(user)));
+                .andExpect(content().json(mapper.writeValueAsString(user)))
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
@@ -162,4 +190,30 @@ class UserControllerIntTest extends IntTest {
         //Assert
         response.andExpect(status().isNotFound());
     }
+
+    @Test
+    void importUsers_csvWithExistingUsername_importNewUsersAndReportExisting() throws Exception {
+        //Arrange
+        String csv = """
+                username,password,role
+                imported1,password5
+                user1,password6
+                imported2,password7,ADMIN
+                """;
+
+        //Act
+        ResultActions response = mockMvc.perform(post(baseUrl + "/import").headers(headers)
+                                                                          .contentType("text/csv")
+                                                                          .content(csv));
+
+        //Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failures[0].line").value(3))
+                .andExpect(jsonPath("$.failures[0].reason").value("Username already exists"));
+        Optional<User> imported = userRepository.findByUsername("imported2");
+        assertThat(imported).isNotEmpty();
+        assertThat(imported.get().getRole()).isEqualTo(Role.ADMIN);
+        assertThat(encoder.matches("password7", imported.get().getPassword())).isTrue();
+    }
 }
@@ -0,0 +1,102 @@
+package com.bogdan.user.messages;
+
+import com.bogdan.user.integration.messages.model.UserEvent;
+import com.bogdan.user.integration.messages.sender.UserEventSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventSenderTest {
+
+    private static final String EXCHANGE = "user_events";
+
+    @Mock
+    private BatchingRabbitTemplate template;
+
+    private UserEventSender sender;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        sender = new UserEventSender(template, 2);
+        ReflectionTestUtils.setField(sender, "exchange", EXCHANGE);
+        sender.bindTo(registry);
+    }
+
+    @Test
+    void sendUserUpdated_publishOnlyOnFlush() {
+        //Arrange
+        sender.sendUserUpdated("old", "new");
+        sender.sendUserDeleted("deleted");
+        verifyNoInteractions(template);
+
+        //Act
+        sender.flush();
+
+        //Assert
+        InOrder order = inOrder(template);
+        order.verify(template)
+             .convertAndSend(EXCHANGE, UserEventSender.USER_UPDATED, new UserEvent("old", "new"));
+        order.verify(template)
+             .convertAndSend(EXCHANGE, UserEventSender.USER_DELETED, new UserEvent("deleted", null));
+        order.verify(template)
+             .flush();
+        assertThat(registry.get("user.events.published")
+                           .functionCounter()
+                           .count()).isEqualTo(2);
+    }
+
+    @Test
+    void sendUserDeleted_whenQueueIsFull_dropEvent() {
+        //Arrange
+        sender.sendUserDeleted("first");
+        sender.sendUserDeleted("second");
+
+        //Act
+        sender.sendUserDeleted("third");
+
+        //Assert
+        sender.flush();
+        verify(template, never()).convertAndSend(EXCHANGE, UserEventSender.USER_DELETED, new UserEvent("third", null));
+        assertThat(registry.get("user.events.dropped")
+                           .functionCounter()
+                           .count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_whenBrokerIsUnreachable_dropEventsWithoutThrowing() {
+        //Arrange
+        doThrow(new AmqpConnectException(new ConnectException())).when(template)
+                                                                 .flush();
+        sender.sendUserDeleted("user");
+
+        //Act
+        sender.flush();
+        sender.flush();
+
+        //Assert
+        verify(template, times(1)).flush();
+        assertThat(registry.get("user.events.dropped")
+                           .functionCounter()
+                           .count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.service.impl.AuthenticationCacheServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationCacheServiceTest {
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private AuthenticationCacheServiceImpl service;
+
+    private final User user = new User(1L, "user", null, Role.USER);
+
+    @BeforeEach
+    void setUp() {
+        service = new AuthenticationCacheServiceImpl(tokenRevocationService, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_whenTokenWasResolvedBefore_returnCachedUser() {
+        //Arrange
+        service.put("token", "token-id", inOneMinute(), user);
+
+        //Act
+        Optional<UserDetails> userDetails = service.get("token");
+
+        //Assert
+        Assertions.assertThat(userDetails)
+                  .containsSame(user);
+    }
+
+    @Test
+    void get_whenTokenWasRevokedSinceItWasCached_returnEmpty() {
+        //Arrange
+        service.put("token", "token-id", inOneMinute(), user);
+        doReturn(true).when(tokenRevocationService)
+                      .isRevoked("token-id");
+
+        //Act
+        Optional<UserDetails> userDetails = service.get("token");
+
+        //Assert
+        Assertions.assertThat(userDetails)
+                  .isEmpty();
+    }
+
+    @Test
+    void put_whenTokenIsAlreadyExpired_doNotCacheIt() {
+        //Arrange
+        service.put("token", "token-id", new Date(System.currentTimeMillis() - 1000), user);
+
+        //Act
+        Optional<UserDetails> userDetails = service.get("token");
+
+        //Assert
+        Assertions.assertThat(userDetails)
+                  .isEmpty();
+    }
+
+    @Test
+    void evictUser_dropEveryTokenOfTheUserOnly() {
+        //Arrange
+        User otherUser = new User(2L, "other", null, Role.USER);
+        service.put("first", "first-id", inOneMinute(), user);
+        service.put("second", "second-id", inOneMinute(), user);
+        service.put("other", "other-id", inOneMinute(), otherUser);
+
+        //Act
+        service.evictUser("user");
+
+        //Assert
+        Assertions.assertThat(service.get("first"))
+                  .isEmpty();
+        Assertions.assertThat(service.get("second"))
+                  .isEmpty();
+        Assertions.assertThat(service.get("other"))
+                  .containsSame(otherUser);
+    }
+
+    private static Date inOneMinute() {
+        return new Date(System.currentTimeMillis() + 60_000);
+    }
+}
@@ -2,19 +2,39 @@ package com.bogdan.user.services;
 
 import com.bogdan.user.controllers.models.LoginRequest;
 import com.bogdan.user.controllers.models.LoginResponse;
+import com.bogdan.user.controllers.models.RefreshRequest;
 import com.bogdan.user.controllers.models.RegisterRequest;
+import com.bogdan.user.controllers.models.TokenValidationResult;
 import com.bogdan.user.controllers.models.ValidationResponse;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.repositories.UserRepository;
 import com.bogdan.user.service.JwtService;
+import com.bogdan.user.service.LoginThrottlingService;
+import com.bogdan.user.service.PasswordHashingService;
+import com.bogdan.user.service.RefreshTokenService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.service.UserDetailsCacheService;
+import com.bogdan.user.service.UsernameFilterService;
 import com.bogdan.user.service.impl.AuthenticationServiceImpl;
+import com.bogdan.user.service.impl.PasswordHashingServiceImpl;
 import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.utils.exceptions.BatchTooLargeException;
+import com.bogdan.user.utils.exceptions.InvalidRefreshTokenException;
+import com.bogdan.user.utils.exceptions.TooManyLoginAttemptsException;
+import com.bogdan.user.utils.exceptions.UsernameAlreadyExistsException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,15 +42,25 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class AuthenticationServiceTest {
@@ -47,6 +77,28 @@ class AuthenticationServiceTest {
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private LoginThrottlingService loginThrottlingService;
+
+    @Mock
+    private UsernameFilterService usernameFilterService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UserDetailsCacheService userDetailsCacheService;
+
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingServiceImpl(new SimpleMeterRegistry(),
+            1, 10);
+
+    @Spy
+    private Executor applicationTaskExecutor = new SimpleAsyncTaskExecutor("task-");
+
     @InjectMocks
     private AuthenticationServiceImpl service;
 
@@ -59,7 +111,8 @@ class AuthenticationServiceTest {
         User user = new User(null, request.username(), "encoded password", Role.ADMIN);
 
         //Act
-        service.registerAdmin(request);
+        service.registerAdmin(request)
+               .join();
 
         //Assert
         verify(repository, times(1)).save(user);
@@ -74,10 +127,49 @@ class AuthenticationServiceTest {
         User user = new User(null, request.username(), "encodedPassword", Role.USER);
 
         //Act
-        service.registerUser(request);
+        service.registerUser(request)
+               .join();
 
         //Assert
         verify(repository, times(1)).save(user);
+        verify(usernameFilterService, times(1)).add(request.username());
+    }
+
+    @Test
+    void registerUser_whenUsernameIsTaken_throwBeforeHashing() {
+        //Arrange
+        RegisterRequest request = new RegisterRequest("user", "password");
+        doReturn(true).when(usernameFilterService)
+                      .isTaken(request.username());
+
+        //Assert
+        Assertions.assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.registerUser(request);
+                  });
+        verifyNoInteractions(encoder);
+    }
+
+    @Test
+    void registerUser_whenUsernameIsTakenOnSave_throwUsernameAlreadyExistsException() {
+        //Arrange
+        RegisterRequest request = new RegisterRequest("user", "password");
+        doReturn("encodedPassword").when(encoder)
+                                   .encode(request.password());
+        doThrow(new DataIntegrityViolationException("uc_user_username")).when(repository)
+                                                                        .save(any(User.class));
+        doReturn(true).when(repository)
+                      .existsByUsername(request.username());
+
+        //Assert
+        Assertions.assertThatExceptionOfType(CompletionException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.registerUser(request)
+                             .join();
+                  })
+                  .withCauseInstanceOf(UsernameAlreadyExistsException.class);
     }
 
     @Test
@@ -97,16 +189,68 @@ class AuthenticationServiceTest {
                       .isAuthenticated();
         doReturn(Optional.of(user)).when(repository)
                                    .findByUsername(request.username());
-        doReturn(token).when(jwtService)
-                       .generateToken(user);
+        AtomicReference<String> issuingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            issuingThread.set(Thread.currentThread()
+                                    .getName());
+            return token;
+        }).when(jwtService)
+          .generateToken(user);
+        doReturn("refresh token").when(refreshTokenService)
+                                 .issue(request.username());
 
         //Act
-        LoginResponse response = service.login(request);
+        LoginResponse response = service.login(request, "127.0.0.1")
+                                        .join();
 
         //Assert
         Assertions.assertThat(response.token())
                   .isNotNull()
                   .isEqualTo(token);
+        Assertions.assertThat(response.refreshToken())
+                  .isEqualTo("refresh token");
+        // only the password check runs on the hashing pool
+        Assertions.assertThat(issuingThread.get())
+                  .startsWith("task-");
+    }
+
+    @Test
+    void refresh_validRefreshToken_returnNewTokensWithoutAuthenticating() {
+        //Arrange
+        User user = new User(1L, "username", "password", Role.USER);
+        doReturn("username").when(refreshTokenService)
+                            .consume("old refresh token");
+        doReturn(user).when(userDetailsCacheService)
+                      .loadUserByUsername("username");
+        doReturn("token").when(jwtService)
+                         .generateToken(user);
+        doReturn("new refresh token").when(refreshTokenService)
+                                     .issue("username");
+
+        //Act
+        LoginResponse response = service.refresh(new RefreshRequest("old refresh token"));
+
+        //Assert
+        Assertions.assertThat(response)
+                  .isEqualTo(new LoginResponse("token", "new refresh token"));
+        verifyNoInteractions(authenticationManager, encoder);
+    }
+
+    @Test
+    void refresh_userWasDeleted_throwInvalidRefreshTokenException() {
+        //Arrange
+        doReturn("username").when(refreshTokenService)
+                            .consume("refresh token");
+        doThrow(new UsernameNotFoundException("User not found")).when(userDetailsCacheService)
+                                                                .loadUserByUsername("username");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(InvalidRefreshTokenException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.refresh(new RefreshRequest("refresh token"));
+                  });
+        verifyNoInteractions(jwtService);
     }
 
     @Test
@@ -124,11 +268,32 @@ class AuthenticationServiceTest {
                        .isAuthenticated();
 
         //Assert
-        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+        Assertions.assertThatExceptionOfType(CompletionException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.login(request, "127.0.0.1")
+                             .join();
+                  })
+                  .withCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void login_tooManyAttempts_throwWithoutAuthenticating() {
+        //Arrange
+        LoginRequest request = LoginRequest.builder()
+                                           .username("username")
+                                           .password("password")
+                                           .build();
+        doThrow(TooManyLoginAttemptsException.class).when(loginThrottlingService)
+                                                    .checkAllowed("username", "127.0.0.1");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(TooManyLoginAttemptsException.class)
                   .isThrownBy(() -> {
                       //Act
-                      service.login(request);
+                      service.login(request, "127.0.0.1");
                   });
+        verifyNoInteractions(authenticationManager, repository);
     }
 
     @Test
@@ -150,4 +315,128 @@ class AuthenticationServiceTest {
         Assertions.assertThat(response.role())
                   .isEqualTo("ADMIN");
     }
+
+    @Test
+    void validateTokens_mixOfValidAndInvalidTokens_returnResultPerTokenInOrder() {
+        //Arrange
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        User user = User.builder()
+                        .id(1L)
+                        .username("mario")
+                        .role(Role.USER)
+                        .build();
+        doReturn(user).when(jwtService)
+                      .extractUserDetails("valid");
+        doThrow(new MalformedJwtException("malformed")).when(jwtService)
+                                                       .extractUserDetails("invalid");
+
+        //Act
+        List<TokenValidationResult> results = service.validateTokens(List.of("valid", "invalid"));
+
+        //Assert
+        Assertions.assertThat(results)
+                  .containsExactly(TokenValidationResult.builder()
+                                                        .validation(new ValidationResponse("USER", "mario"))
+                                                        .build(), TokenValidationResult.builder()
+                                                                                       .rejection("Invalid token")
+                                                                                       .build());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void validateTokens_loadUserEnabled_rejectTokensOfDeletedOrChangedUsers() {
+        //Arrange
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(service, "loadUser", true);
+        User mario = User.builder()
+                         .id(1L)
+                         .username("mario")
+                         .role(Role.USER)
+                         .build();
+        User luigi = User.builder()
+                         .id(2L)
+                         .username("luigi")
+                         .role(Role.ADMIN)
+                         .build();
+        User peach = User.builder()
+                         .id(3L)
+                         .username("peach")
+                         .role(Role.USER)
+                         .build();
+        doReturn(mario).when(jwtService)
+                       .extractUserDetails("unchanged");
+        doReturn(luigi).when(jwtService)
+                       .extractUserDetails("demoted");
+        doReturn(peach).when(jwtService)
+                       .extractUserDetails("deleted");
+        doReturn(mario).when(userDetailsCacheService)
+                       .loadUserByUsername("mario");
+        doReturn(new User(2L, "luigi", "password", Role.USER)).when(userDetailsCacheService)
+                                                              .loadUserByUsername("luigi");
+        doThrow(new UsernameNotFoundException("User not found")).when(userDetailsCacheService)
+                                                                .loadUserByUsername("peach");
+
+        //Act
+        List<TokenValidationResult> results = service.validateTokens(List.of("unchanged", "demoted", "deleted"));
+
+        //Assert
+        TokenValidationResult rejection = TokenValidationResult.builder()
+                                                               .rejection("User no longer matches the token")
+                                                               .build();
+        Assertions.assertThat(results)
+                  .containsExactly(TokenValidationResult.builder()
+                                                        .validation(new ValidationResponse("USER", "mario"))
+                                                        .build(), rejection, rejection);
+    }
+
+    @Test
+    void validateTokens_moreTokensThanMaxBatchSize_throwBatchTooLargeException() {
+        //Arrange
+        ReflectionTestUtils.setField(service, "maxBatchSize", 1);
+
+        //Assert
+        Assertions.assertThatExceptionOfType(BatchTooLargeException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.validateTokens(List.of("first", "second"));
+                  });
+    }
+
+    @Test
+    void logout_validToken_revokeTokenUntilItExpires() {
+        //Arrange
+        // claims keep the expiration in whole seconds
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        Claims claims = Jwts.claims()
+                            .id("token-id")
+                            .subject("mario")
+                            .expiration(expiration)
+                            .build();
+        doReturn(claims).when(jwtService)
+                        .verifyToken("token");
+
+        //Act
+        service.logout("token");
+
+        //Assert
+        verify(tokenRevocationService, times(1)).revoke("token-id", expiration);
+    }
+
+    @Test
+    void logout_tokenWithoutId_throwMalformedJwtException() {
+        //Arrange
+        Claims claims = Jwts.claims()
+                            .subject("mario")
+                            .build();
+        doReturn(claims).when(jwtService)
+                        .verifyToken("token");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(MalformedJwtException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.logout("token");
+                  });
+        verifyNoInteractions(tokenRevocationService);
+    }
 }
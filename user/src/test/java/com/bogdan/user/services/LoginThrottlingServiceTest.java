@@ -0,0 +1,54 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.service.impl.LoginThrottlingServiceImpl;
+import com.bogdan.user.utils.exceptions.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class LoginThrottlingServiceTest {
+
+    private final LoginThrottlingServiceImpl service = new LoginThrottlingServiceImpl(1, Duration.ofMinutes(1), 2,
+            Duration.ofMinutes(1), 4);
+
+    @Test
+    void checkAllowed_whenUsernameIsOverLimit_throwAndCountRejection() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        service.checkAllowed("mario", "10.0.0.1");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(TooManyLoginAttemptsException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.checkAllowed("mario", "10.0.0.2");
+                  });
+        Assertions.assertThat(registry.get("login.throttling.rejected")
+                                      .tag("limiter", "username")
+                                      .functionCounter()
+                                      .count())
+                  .isEqualTo(1);
+        Assertions.assertThat(registry.get("login.throttling.entries")
+                                      .tag("limiter", "client")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(2);
+    }
+
+    @Test
+    void checkAllowed_whenClientIsOverLimit_throwForAnyUsername() {
+        //Arrange
+        service.checkAllowed("first", "10.0.0.1");
+        service.checkAllowed("second", "10.0.0.1");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(TooManyLoginAttemptsException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.checkAllowed("third", "10.0.0.1");
+                  });
+    }
+}
@@ -0,0 +1,81 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.service.impl.PasswordHashingServiceImpl;
+import com.bogdan.user.utils.exceptions.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(registry, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void submit_runTaskAndRecordLatency() {
+        //Act
+        String hash = service.submit("register", () -> "hash")
+                             .join();
+
+        //Assert
+        Assertions.assertThat(hash)
+                  .isEqualTo("hash");
+        Assertions.assertThat(registry.get("password.hashing")
+                                      .tag("operation", "register")
+                                      .timer()
+                                      .count())
+                  .isEqualTo(1);
+    }
+
+    @Test
+    void submit_whenThreadsAndQueueAreBusy_throwHashingCapacityExceededException() throws InterruptedException {
+        //Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = service.submit("login", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        started.await();
+        CompletableFuture<Void> queued = service.submit("login", () -> null);
+
+        //Assert
+        Assertions.assertThatExceptionOfType(HashingCapacityExceededException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.submit("login", () -> null);
+                  });
+        Assertions.assertThat(registry.get("executor.queued")
+                                      .tag("name", "password-hashing")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(1);
+        Assertions.assertThat(registry.get("password.hashing.rejected")
+                                      .counter()
+                                      .count())
+                  .isEqualTo(1);
+        release.countDown();
+        CompletableFuture.allOf(running, queued)
+                         .join();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+}
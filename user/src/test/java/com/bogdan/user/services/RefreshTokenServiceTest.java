@@ -0,0 +1,120 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.persistence.entities.RefreshToken;
+import com.bogdan.user.persistence.repositories.RefreshTokenRepository;
+import com.bogdan.user.service.impl.RefreshTokenServiceImpl;
+import com.bogdan.user.utils.exceptions.InvalidRefreshTokenException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+
+    private final RefreshTokenServiceImpl service = new RefreshTokenServiceImpl(refreshTokenRepository,
+            Duration.ofDays(14));
+
+    @Test
+    void issue_storeOnlyTheHashOfTheToken() {
+        //Act
+        String refreshToken = service.issue("username");
+
+        //Assert
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken stored = captor.getValue();
+        Assertions.assertThat(refreshToken)
+                  .hasSize(43);
+        Assertions.assertThat(stored.getTokenHash())
+                  .hasSize(64)
+                  .isNotEqualTo(refreshToken);
+        Assertions.assertThat(stored.getUsername())
+                  .isEqualTo("username");
+        Assertions.assertThat(stored.getExpiresAt())
+                  .isAfter(LocalDateTime.now()
+                                        .plusDays(13));
+    }
+
+    @Test
+    void consume_validToken_deleteItAndReturnUsername() {
+        //Arrange
+        String refreshToken = issueStored(LocalDateTime.now()
+                                                       .plusDays(1));
+        when(refreshTokenRepository.deleteIfPresent(1L)).thenReturn(1);
+
+        //Act
+        String username = service.consume(refreshToken);
+
+        //Assert
+        Assertions.assertThat(username)
+                  .isEqualTo("username");
+    }
+
+    @Test
+    void consume_tokenAlreadyUsed_throwInvalidRefreshTokenException() {
+        //Arrange
+        String refreshToken = issueStored(LocalDateTime.now()
+                                                       .plusDays(1));
+        when(refreshTokenRepository.deleteIfPresent(1L)).thenReturn(0);
+
+        //Assert
+        Assertions.assertThatExceptionOfType(InvalidRefreshTokenException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.consume(refreshToken);
+                  });
+    }
+
+    @Test
+    void consume_tokenExpired_throwInvalidRefreshTokenException() {
+        //Arrange
+        String refreshToken = issueStored(LocalDateTime.now()
+                                                       .minusMinutes(1));
+        when(refreshTokenRepository.deleteIfPresent(1L)).thenReturn(1);
+
+        //Assert
+        Assertions.assertThatExceptionOfType(InvalidRefreshTokenException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.consume(refreshToken);
+                  })
+                  .withMessage("Refresh token expired");
+    }
+
+    @Test
+    void consume_blankToken_throwWithoutQueryingTheDatabase() {
+        //Assert
+        Assertions.assertThatExceptionOfType(InvalidRefreshTokenException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.consume(" ");
+                  });
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    private String issueStored(LocalDateTime expiresAt) {
+        String refreshToken = service.issue("username");
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken stored = captor.getValue();
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(
+                RefreshToken.builder()
+                            .id(1L)
+                            .tokenHash(stored.getTokenHash())
+                            .username(stored.getUsername())
+                            .expiresAt(expiresAt)
+                            .build()));
+        return refreshToken;
+    }
+}
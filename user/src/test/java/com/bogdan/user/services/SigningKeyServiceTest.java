@@ -0,0 +1,139 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.persistence.entities.SigningKey;
+import com.bogdan.user.persistence.repositories.SigningKeyRepository;
+import com.bogdan.user.service.impl.SigningKeyServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.RsaPrivateJwk;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SigningKeyServiceTest {
+
+    @Mock
+    private SigningKeyRepository repository;
+
+    private SigningKeyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SigningKeyServiceImpl(repository, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @Test
+    void getSigningKey_whenNoKeysStored_generateAndSaveKey() {
+        //Arrange
+        when(repository.findByRetiredAtIsNullOrderByCreatedAtDesc()).thenReturn(new ArrayList<>());
+        when(repository.save(any(SigningKey.class))).then(invocation -> invocation.getArgument(0));
+
+        //Act
+        RsaPrivateJwk signingKey = service.getSigningKey();
+
+        //Assert
+        ArgumentCaptor<SigningKey> captor = ArgumentCaptor.forClass(SigningKey.class);
+        verify(repository, times(1)).save(captor.capture());
+        Assertions.assertThat(signingKey.getId())
+                  .isEqualTo(captor.getValue()
+                                   .getKid());
+        Assertions.assertThat(service.findVerificationKey(signingKey.getId()))
+                  .isPresent();
+    }
+
+    @Test
+    void getSigningKey_whenCurrentKeyIsFresh_useStoredKeyWithoutRotating() {
+        //Arrange
+        SigningKey current = storedKey("current", LocalDateTime.now()
+                                                               .minusDays(1));
+        when(repository.findByRetiredAtIsNullOrderByCreatedAtDesc()).thenReturn(List.of(current));
+
+        //Act
+        RsaPrivateJwk signingKey = service.getSigningKey();
+
+        //Assert
+        Assertions.assertThat(signingKey.getId())
+                  .isEqualTo("current");
+        verify(repository, never()).save(any(SigningKey.class));
+    }
+
+    @Test
+    void refreshKeys_whenCurrentKeyOlderThanRotationInterval_rotateAndKeepPreviousKeyForVerification() {
+        //Arrange
+        SigningKey previous = storedKey("previous", LocalDateTime.now()
+                                                                 .minusDays(8));
+        when(repository.findByRetiredAtIsNullOrderByCreatedAtDesc()).thenReturn(List.of(previous));
+        when(repository.save(any(SigningKey.class))).then(invocation -> invocation.getArgument(0));
+
+        //Act
+        service.refreshKeys();
+
+        //Assert
+        Assertions.assertThat(service.getSigningKey()
+                                     .getId())
+                  .isNotEqualTo("previous");
+        Assertions.assertThat(service.findVerificationKey("previous"))
+                  .isPresent();
+        Assertions.assertThat(previous.getRetiredAt())
+                  .isNull();
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) service.getVerificationKeys()
+                                                                            .get("keys");
+        Assertions.assertThat(keys)
+                  .hasSize(2);
+    }
+
+    @Test
+    void refreshKeys_whenKeySupersededLongerThanRetention_retireKey() {
+        //Arrange
+        SigningKey current = storedKey("current", LocalDateTime.now()
+                                                               .minusHours(2));
+        SigningKey previous = storedKey("previous", LocalDateTime.now()
+                                                                 .minusDays(8));
+        when(repository.findByRetiredAtIsNullOrderByCreatedAtDesc()).thenReturn(List.of(current, previous));
+
+        //Act
+        service.refreshKeys();
+
+        //Assert
+        verify(repository, times(1)).save(previous);
+        Assertions.assertThat(previous.getRetiredAt())
+                  .isNotNull();
+        Assertions.assertThat(service.findVerificationKey("previous"))
+                  .isEmpty();
+        Assertions.assertThat(service.getSigningKey()
+                                     .getId())
+                  .isEqualTo("current");
+    }
+
+    private static SigningKey storedKey(String kid, LocalDateTime createdAt) {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair()
+                                        .build();
+        return SigningKey.builder()
+                         .kid(kid)
+                         .publicKey(Encoders.BASE64.encode(keyPair.getPublic()
+                                                                  .getEncoded()))
+                         .privateKey(Encoders.BASE64.encode(keyPair.getPrivate()
+                                                                   .getEncoded()))
+                         .createdAt(createdAt)
+                         .build();
+    }
+}
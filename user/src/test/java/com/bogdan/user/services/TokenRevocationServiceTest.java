@@ -0,0 +1,165 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.controllers.models.RevocationDelta;
+import com.bogdan.user.controllers.models.RevokedTokenEntry;
+import com.bogdan.user.persistence.entities.RevokedToken;
+import com.bogdan.user.persistence.repositories.RevokedTokenRepository;
+import com.bogdan.user.service.impl.TokenRevocationServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationServiceImpl(revokedTokenRepository, 1000, 0.01, 1, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void isRevoked_whenNothingWasRevoked_answerWithoutQueryingTheDatabase() {
+        //Act
+        boolean revoked = service.isRevoked("token-id");
+
+        //Assert
+        Assertions.assertThat(revoked)
+                  .isFalse();
+        verify(revokedTokenRepository, never()).existsByJti(anyString());
+    }
+
+    @Test
+    void isRevoked_whenTokenWasRevoked_confirmAgainstTheDatabase() {
+        //Arrange
+        when(revokedTokenRepository.existsByJti("token-id")).thenReturn(false, true);
+        service.revoke("token-id", new Date(System.currentTimeMillis() + 60_000));
+
+        //Act
+        boolean revoked = service.isRevoked("token-id");
+
+        //Assert
+        Assertions.assertThat(revoked)
+                  .isTrue();
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revokeSession_keepSessionRevokedForAFullAccessTokenLifetime() {
+        //Arrange
+        LocalDateTime before = LocalDateTime.now();
+
+        //Act
+        service.revokeSession("session-id");
+
+        //Assert
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository, times(1)).save(captor.capture());
+        Assertions.assertThat(captor.getValue()
+                                    .getJti())
+                  .isEqualTo("session-id");
+        Assertions.assertThat(captor.getValue()
+                                    .getExpiresAt())
+                  .isAfterOrEqualTo(before.plusMinutes(15));
+    }
+
+    @Test
+    void syncRevocations_whenAnotherInstanceRevokedToken_addItToTheFilter() {
+        //Arrange
+        service.syncRevocations();
+        RevokedToken revocation = RevokedToken.builder()
+                                              .id(7L)
+                                              .jti("token-id")
+                                              .expiresAt(LocalDateTime.now()
+                                                                      .plusMinutes(10))
+                                              .revokedAt(LocalDateTime.now())
+                                              .build();
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(revocation));
+        when(revokedTokenRepository.existsByJti("token-id")).thenReturn(true);
+
+        //Act
+        service.syncRevocations();
+
+        //Assert
+        Assertions.assertThat(service.isRevoked("token-id"))
+                  .isTrue();
+    }
+
+    @Test
+    void syncRevocations_whenRevocationCommittedBehindCursor_addItToTheFilter() {
+        //Arrange
+        RevokedToken later = RevokedToken.builder()
+                                         .id(5L)
+                                         .jti("later")
+                                         .expiresAt(LocalDateTime.now()
+                                                                 .plusMinutes(10))
+                                         .revokedAt(LocalDateTime.now())
+                                         .build();
+        RevokedToken earlier = RevokedToken.builder()
+                                           .id(4L)
+                                           .jti("earlier")
+                                           .expiresAt(LocalDateTime.now()
+                                                                   .plusMinutes(10))
+                                           .revokedAt(LocalDateTime.now())
+                                           .build();
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(later));
+        service.syncRevocations();
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(eq(4L), any())).thenReturn(
+                List.of(earlier, later));
+        when(revokedTokenRepository.existsByJti("earlier")).thenReturn(true);
+
+        //Act
+        service.syncRevocations();
+
+        //Assert
+        Assertions.assertThat(service.isRevoked("earlier"))
+                  .isTrue();
+    }
+
+    @Test
+    void getRevocations_returnEntriesAndIdOfTheLastOneAsCursor() {
+        //Arrange
+        LocalDateTime expiresAt = LocalDateTime.now()
+                                               .plusMinutes(10)
+                                               .withNano(0);
+        RevokedToken revocation = RevokedToken.builder()
+                                              .id(3L)
+                                              .jti("token-id")
+                                              .expiresAt(expiresAt)
+                                              .revokedAt(LocalDateTime.now())
+                                              .build();
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any())).thenReturn(List.of(revocation));
+
+        //Act
+        RevocationDelta delta = service.getRevocations(2L, 100);
+
+        //Assert
+        Assertions.assertThat(delta.cursor())
+                  .isEqualTo(3L);
+        Assertions.assertThat(delta.revocations())
+                  .containsExactly(new RevokedTokenEntry("token-id", expiresAt.atZone(ZoneId.systemDefault())
+                                                                              .toEpochSecond()));
+    }
+}
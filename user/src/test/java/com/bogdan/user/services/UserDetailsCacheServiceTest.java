@@ -0,0 +1,93 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.impl.UserDetailsCacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsCacheServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserDetailsCacheServiceImpl(userRepository, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void loadUserByUsername_whenLoadedBefore_serveFromCacheAndReportHitRatio() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        User user = new User(1L, "user", "password", Role.USER);
+        doReturn(Optional.of(user)).when(userRepository)
+                                   .findByUsername("user");
+        service.loadUserByUsername("user");
+
+        //Act
+        UserDetails userDetails = service.loadUserByUsername("user");
+
+        //Assert
+        Assertions.assertThat(userDetails)
+                  .isEqualTo(user)
+                  .isNotSameAs(user);
+        verify(userRepository, times(1)).findByUsername("user");
+        Assertions.assertThat(registry.get("cache.hit.ratio")
+                                      .tag("cache", "user-details")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(0.5);
+    }
+
+    @Test
+    void loadUserByUsername_whenUserIsMissing_throwAndDoNotCacheTheMiss() {
+        //Arrange
+        doReturn(Optional.empty()).when(userRepository)
+                                  .findByUsername("missing");
+
+        //Assert
+        Assertions.assertThatExceptionOfType(UsernameNotFoundException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.loadUserByUsername("missing");
+                  });
+        Assertions.assertThatExceptionOfType(UsernameNotFoundException.class)
+                  .isThrownBy(() -> service.loadUserByUsername("missing"));
+        verify(userRepository, times(2)).findByUsername("missing");
+    }
+
+    @Test
+    void evict_reloadUserOnNextLookup() {
+        //Arrange
+        doReturn(Optional.of(new User(1L, "user", "password", Role.USER))).when(userRepository)
+                                                                         .findByUsername("user");
+        service.loadUserByUsername("user");
+
+        //Act
+        service.evict("user");
+        service.loadUserByUsername("user");
+
+        //Assert
+        verify(userRepository, times(2)).findByUsername("user");
+    }
+}
@@ -0,0 +1,208 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.controllers.models.ImportFailure;
+import com.bogdan.user.controllers.models.ImportFormat;
+import com.bogdan.user.controllers.models.ImportReport;
+import com.bogdan.user.persistence.entities.User;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.UserBatchRepository;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.UsernameFilterService;
+import com.bogdan.user.service.impl.UserImportServiceImpl;
+import com.bogdan.user.utils.PasswordEncoders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private UsernameFilterService usernameFilterService;
+
+    private final PasswordEncoder passwordEncoder = PasswordEncoders.bcrypt(4);
+
+    private UserImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserImportServiceImpl(userRepository, userBatchRepository, passwordEncoder, new ObjectMapper(),
+                usernameFilterService, 2);
+    }
+
+    @Test
+    void importUsers_whenNdjsonHasInvalidRows_importTheOthersAndReportFailures() throws IOException {
+        //Arrange
+        doReturn(List.of("taken")).when(userRepository)
+                                  .findExistingUsernames(anyCollection());
+        InputStream input = stream("""
+                {"username":"first","password":"password1"}
+                not json
+                {"username":"taken","password":"password2"}
+
+                {"username":"second","password":"password3","role":"ADMIN"}
+                {"username":"second","password":"password4"}
+                {"username":"third"}
+                """);
+
+        //Act
+        ImportReport report = service.importUsers(input, ImportFormat.NDJSON);
+
+        //Assert
+        Assertions.assertThat(report.imported())
+                  .isEqualTo(2);
+        Assertions.assertThat(report.failed())
+                  .isEqualTo(4);
+        Assertions.assertThat(report.failures())
+                  .containsExactlyInAnyOrder(new ImportFailure(2, null, "Malformed row"),
+                          new ImportFailure(3, "taken", "Username already exists"),
+                          new ImportFailure(6, "second", "Duplicate username in the import"),
+                          new ImportFailure(7, "third", "Missing password"));
+        Assertions.assertThat(report.rowsPerSecond())
+                  .isPositive();
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository, times(2)).insertAll(captor.capture());
+        List<User> inserted = captor.getAllValues()
+                                    .stream()
+                                    .flatMap(List::stream)
+                                    .toList();
+        Assertions.assertThat(inserted)
+                  .extracting(User::getUsername, User::getRole)
+                  .containsExactly(Assertions.tuple("first", Role.USER), Assertions.tuple("second", Role.ADMIN));
+        Assertions.assertThat(passwordEncoder.matches("password3", inserted.get(1)
+                                                                           .getPassword()))
+                  .isTrue();
+        verify(usernameFilterService, times(1)).add("first");
+        verify(usernameFilterService, times(1)).add("second");
+    }
+
+    @Test
+    void importUsers_whenCsvHasHeaderAndRoles_importAllRows() throws IOException {
+        //Arrange
+        InputStream input = stream("""
+                username,password,role
+                first,password1,admin
+                second,password2
+                third,password3,unknown
+                """);
+
+        //Act
+        ImportReport report = service.importUsers(input, ImportFormat.CSV);
+
+        //Assert
+        Assertions.assertThat(report.imported())
+                  .isEqualTo(2);
+        Assertions.assertThat(report.failures())
+                  .containsExactly(new ImportFailure(4, "third", "Unknown role unknown"));
+    }
+
+    @Test
+    void importUsers_whenCsvHasQuotedFields_keepCommasQuotesAndLineBreaks() throws IOException {
+        //Arrange
+        InputStream input = stream("""
+                first,"pass,word"
+                "second","say ""hi""
+                twice",admin
+                third
+                fourth,password4
+                """);
+
+        //Act
+        ImportReport report = service.importUsers(input, ImportFormat.CSV);
+
+        //Assert
+        Assertions.assertThat(report.imported())
+                  .isEqualTo(3);
+        Assertions.assertThat(report.failures())
+                  .containsExactly(new ImportFailure(4, null, "Malformed row: expected username,password[,role]"));
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository, times(2)).insertAll(captor.capture());
+        List<User> inserted = captor.getAllValues()
+                                    .stream()
+                                    .flatMap(List::stream)
+                                    .toList();
+        Assertions.assertThat(inserted)
+                  .extracting(User::getUsername, User::getRole)
+                  .containsExactly(Assertions.tuple("first", Role.USER), Assertions.tuple("second", Role.ADMIN),
+                          Assertions.tuple("fourth", Role.USER));
+        Assertions.assertThat(passwordEncoder.matches("pass,word", inserted.get(0)
+                                                                           .getPassword()))
+                  .isTrue();
+        Assertions.assertThat(passwordEncoder.matches("say \"hi\"\ntwice", inserted.get(1)
+                                                                                 .getPassword()))
+                  .isTrue();
+    }
+
+    @Test
+    void importUsers_whenCsvHasUnbalancedQuote_importTheRowsBeforeAndReportTheLine() throws IOException {
+        //Arrange
+        InputStream input = stream("""
+                first,password1
+                second,"password2
+                third,password3
+                """);
+
+        //Act
+        ImportReport report = service.importUsers(input, ImportFormat.CSV);
+
+        //Assert
+        Assertions.assertThat(report.imported())
+                  .isEqualTo(1);
+        Assertions.assertThat(report.failures())
+                  .containsExactly(new ImportFailure(2, null,
+                          "Malformed row: unbalanced quotes, the rest of the input was skipped"));
+    }
+
+    @Test
+    void importUsers_whenBatchHitsConcurrentRegistration_insertRowsOneByOne() throws IOException {
+        //Arrange
+        doThrow(new DuplicateKeyException("duplicate")).doNothing()
+                                                       .doThrow(new DuplicateKeyException("duplicate"))
+                                                       .when(userBatchRepository)
+                                                       .insertAll(anyList());
+        InputStream input = stream("""
+                {"username":"first","password":"password1"}
+                {"username":"second","password":"password2"}
+                """);
+
+        //Act
+        ImportReport report = service.importUsers(input, ImportFormat.NDJSON);
+
+        //Assert
+        Assertions.assertThat(report.imported())
+                  .isEqualTo(1);
+        Assertions.assertThat(report.failures())
+                  .containsExactly(new ImportFailure(2, "second", "Username already exists"));
+        verify(userBatchRepository, times(3)).insertAll(anyList());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
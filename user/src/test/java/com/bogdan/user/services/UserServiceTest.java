@@ -2,11 +2,20 @@ package com.bogdan.user.services;
 
 import com.bogdan.user.controllers.models.GetUser;
 import com.bogdan.user.controllers.models.UpdateUser;
+import com.bogdan.user.controllers.models.UserPage;
+import com.bogdan.user.controllers.models.UserSummary;
+import com.bogdan.user.integration.messages.sender.UserEventSender;
 import com.bogdan.user.persistence.entities.User;
 import com.bogdan.user.persistence.entities.enums.Role;
 import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.AuthenticationCacheService;
+import com.bogdan.user.service.RefreshTokenService;
+import com.bogdan.user.service.TokenRevocationService;
+import com.bogdan.user.service.UserDetailsCacheService;
+import com.bogdan.user.service.UsernameFilterService;
 import com.bogdan.user.service.impl.UserServiceImpl;
 import com.bogdan.user.utils.exceptions.UserNotFoundException;
+import com.bogdan.user.utils.exceptions.UsernameAlreadyExistsException;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +23,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
@@ -32,38 +42,61 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserDetailsCacheService userDetailsCacheService;
+
+    @Mock
+    private UsernameFilterService usernameFilterService;
+
+    @Mock
+    private UserEventSender userEventSender;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private AuthenticationCacheService authenticationCacheService;
+
     @InjectMocks
     private UserServiceImpl service;
 
     @Test
-    void getAllUsers_serviceReturnsAllUsers_returnUsers() {
+    void getUsers_whenMoreUsersThanTheLimit_returnPageWithNextCursor() {
         //Arrange
-        User user1 = User.builder()
-                         .id(1L)
-                         .username("user1")
-                         .password("password1")
-                         .role(Role.USER)
-                         .build();
-        User user2 = User.builder()
-                         .id(2L)
-                         .username("user2")
-                         .password("password2")
-                         .role(Role.USER)
-                         .build();
-        Mockito.when(repository.findAll())
-               .thenReturn(List.of(user1, user2));
+        UserSummary user1 = new UserSummary(1L, "user1", Role.USER);
+        UserSummary user2 = new UserSummary(2L, "user2", Role.USER);
+        UserSummary user3 = new UserSummary(3L, "user3", Role.USER);
+        Mockito.when(repository.findSummariesAfter(0L, Role.USER, "us!_er%", PageRequest.of(0, 3)))
+               .thenReturn(List.of(user1, user2, user3));
 
         //Act
-        List<GetUser> actualUsers = service.getAllUsers();
+        UserPage actualPage = service.getUsers(0L, 2, Role.USER, "us_er");
 
         //Assert
-        Assertions.assertThat(actualUsers)
-                  .isNotNull()
-                  .hasSize(2);
-        Assertions.assertThat(actualUsers.get(0))
-                  .isEqualTo(mapUserToGetUser(user1));
-        Assertions.assertThat(actualUsers.get(1))
-                  .isEqualTo(mapUserToGetUser(user2));
+        Assertions.assertThat(actualPage.users())
+                  .containsExactly(user1, user2);
+        Assertions.assertThat(actualPage.nextCursor())
+                  .isEqualTo(2L);
+    }
+
+    @Test
+    void getUsers_whenLastPage_returnPageWithoutNextCursor() {
+        //Arrange
+        UserSummary user = new UserSummary(5L, "user5", Role.ADMIN);
+        Mockito.when(repository.findSummariesAfter(4L, null, null, PageRequest.of(0, 101)))
+               .thenReturn(List.of(user));
+
+        //Act
+        UserPage actualPage = service.getUsers(4L, 1000, null, "");
+
+        //Assert
+        Assertions.assertThat(actualPage.users())
+                  .containsExactly(user);
+        Assertions.assertThat(actualPage.nextCursor())
+                  .isNull();
     }
 
     @Test
@@ -111,6 +144,26 @@ class UserServiceTest {
         verify(repository, times(1)).deleteById(userId);
     }
 
+    @Test
+    void deleteUser_whenUserExists_revokeTheirTokens() {
+        //Arrange
+        long userId = 1L;
+        User user = new User(userId, "username", "password", Role.USER);
+        user.setSessionId("session-id");
+        when(repository.findById(userId)).thenReturn(Optional.of(user));
+
+        //Act
+        service.deleteUser(userId);
+
+        //Assert
+        verify(tokenRevocationService, times(1)).revokeSession("session-id");
+        verify(refreshTokenService, times(1)).revokeAllForUser("username");
+        verify(authenticationCacheService, times(1)).evictUser("username");
+        verify(repository, times(1)).deleteById(userId);
+        verify(userDetailsCacheService, times(1)).evict("username");
+        verify(userEventSender, times(1)).sendUserDeleted("username");
+    }
+
     @Test
     void updateUser_whenRepositoryReturnsActualUser_saveMethodIsCalled() {
         //Arrange
@@ -121,6 +174,7 @@ class UserServiceTest {
                                           .build();
         when(encoder.encode(updateUser.password())).thenReturn("new encoded password");
         User user = new User(userId, "username", "password", Role.USER);
+        user.setSessionId("session-id");
         Mockito.when(repository.findById(userId))
                .thenReturn(Optional.of(user));
 
@@ -130,6 +184,37 @@ class UserServiceTest {
         //Assert
         verify(repository, times(1)).save(
                 new User(userId, updateUser.username(), "new encoded password", user.getRole()));
+        verify(userDetailsCacheService, times(1)).evict("username");
+        verify(userDetailsCacheService, times(1)).evict("new username");
+        verify(usernameFilterService, times(1)).add("new username");
+        verify(tokenRevocationService, times(1)).revokeSession("session-id");
+        verify(refreshTokenService, times(1)).revokeAllForUser("username");
+        verify(authenticationCacheService, times(1)).evictUser("username");
+        verify(userEventSender, times(1)).sendUserUpdated("username", "new username");
+        // tokens issued from now on must not carry the revoked session
+        Assertions.assertThat(user.getSessionId())
+                  .isNotEqualTo("session-id");
+    }
+
+    @Test
+    void updateUser_whenNewUsernameIsTaken_throwUsernameAlreadyExistsException() {
+        //Arrange
+        long userId = 1L;
+        UpdateUser updateUser = UpdateUser.builder()
+                                          .username("taken")
+                                          .password("new password")
+                                          .build();
+        Mockito.when(repository.findById(userId))
+               .thenReturn(Optional.of(new User(userId, "username", "password", Role.USER)));
+        when(usernameFilterService.isTaken("taken")).thenReturn(true);
+
+        //Assert
+        Assertions.assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+                  .isThrownBy(() -> {
+                      //Act
+                      service.updateUser(userId, updateUser);
+                  });
+        Mockito.verifyNoInteractions(encoder);
     }
 
     @Test
@@ -155,7 +240,6 @@ class UserServiceTest {
     private GetUser mapUserToGetUser(User user) {
         return GetUser.builder()
                       .username(user.getUsername())
-                      .password(user.getPassword())
                       .role(user.getRole())
                       .build();
     }
@@ -0,0 +1,85 @@
+package com.bogdan.user.services;
+
+import com.bogdan.user.controllers.models.UserSummary;
+import com.bogdan.user.persistence.entities.enums.Role;
+import com.bogdan.user.persistence.repositories.UserRepository;
+import com.bogdan.user.service.impl.UsernameFilterServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameFilterServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UsernameFilterServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UsernameFilterServiceImpl(userRepository, 1000, 0.01);
+        doReturn(List.of(new UserSummary(1L, "existing", Role.USER))).when(userRepository)
+                                                                     .findSummariesAfter(0L, null, null,
+                                                                             PageRequest.of(0, 1000));
+    }
+
+    @Test
+    void isTaken_whenFilterHasNotSeenUsername_returnFalseWithoutQuery() {
+        //Act
+        boolean taken = service.isTaken("new");
+
+        //Assert
+        Assertions.assertThat(taken)
+                  .isFalse();
+        verify(userRepository, never()).existsByUsername("new");
+    }
+
+    @Test
+    void isTaken_whenFilterHasSeenUsername_confirmWithDatabase() {
+        //Arrange
+        doReturn(true).when(userRepository)
+                      .existsByUsername("existing");
+
+        //Act
+        boolean taken = service.isTaken("existing");
+
+        //Assert
+        Assertions.assertThat(taken)
+                  .isTrue();
+    }
+
+    @Test
+    void isTaken_whenUsernameWasDeleted_countFalsePositive() {
+        //Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        service.add("deleted");
+
+        //Act
+        boolean taken = service.isTaken("deleted");
+
+        //Assert
+        Assertions.assertThat(taken)
+                  .isFalse();
+        Assertions.assertThat(registry.get("username.filter.false-positives")
+                                      .functionCounter()
+                                      .count())
+                  .isEqualTo(1);
+        Assertions.assertThat(registry.get("username.filter.entries")
+                                      .gauge()
+                                      .value())
+                  .isEqualTo(2);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bogdan.user.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PasswordEncodersTest {
+
+    private final PasswordEncoder bcrypt = PasswordEncoders.bcrypt(4);
+
+    private final PasswordEncoder argon2 = PasswordEncoders.argon2(1024, 1, 1);
+
+    private final PasswordEncoder pbkdf2 = PasswordEncoders.pbkdf2(1000);
+
+    @Test
+    void delegating_matchHashesOfEveryAlgorithmAndLegacyBcrypt() {
+        //Arrange
+        PasswordEncoder encoder = PasswordEncoders.delegating(PasswordEncoders.ARGON2, bcrypt, argon2, pbkdf2);
+        String legacyHash = bcrypt.encode("password");
+        String argon2Hash = encoder.encode("password");
+        String pbkdf2Hash = "{pbkdf2}" + pbkdf2.encode("password");
+
+        //Act
+        boolean legacyMatches = encoder.matches("password", legacyHash);
+        boolean argon2Matches = encoder.matches("password", argon2Hash);
+        boolean pbkdf2Matches = encoder.matches("password", pbkdf2Hash);
+
+        //Assert
+        assertThat(argon2Hash).startsWith("{argon2}");
+        assertThat(legacyMatches).isTrue();
+        assertThat(argon2Matches).isTrue();
+        assertThat(pbkdf2Matches).isTrue();
+    }
+
+    @Test
+    void delegating_upgradeHashesOfOtherAlgorithmsOrLowerCost() {
+        //Arrange
+        PasswordEncoder encoder = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, PasswordEncoders.bcrypt(5),
+                argon2, pbkdf2);
+
+        //Act
+        boolean upgradeLegacy = encoder.upgradeEncoding(bcrypt.encode("password"));
+        boolean upgradeLowerCost = encoder.upgradeEncoding("{bcrypt}" + bcrypt.encode("password"));
+        boolean upgradeOtherAlgorithm = encoder.upgradeEncoding("{pbkdf2}" + pbkdf2.encode("password"));
+        boolean upgradeCurrent = encoder.upgradeEncoding(encoder.encode("password"));
+
+        //Assert
+        assertThat(upgradeLegacy).isTrue();
+        assertThat(upgradeLowerCost).isTrue();
+        assertThat(upgradeOtherAlgorithm).isTrue();
+        assertThat(upgradeCurrent).isFalse();
+    }
+
+    @Test
+    void delegating_unknownAlgorithm_throwIllegalArgumentException() {
+        //Assert
+        assertThatIllegalArgumentException().isThrownBy(() -> {
+            //Act
+            PasswordEncoders.delegating("md5", bcrypt, argon2, pbkdf2);
+        });
+    }
+}
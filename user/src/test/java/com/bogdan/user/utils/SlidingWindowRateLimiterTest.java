@@ -0,0 +1,62 @@
+package com.bogdan.user.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long WINDOW_START = 1_000_000L * 60_000;
+
+    private final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofMinutes(1), 4);
+
+    @Test
+    void tryAcquire_whenLimitReached_rejectFurtherAttempts() {
+        //Act
+        boolean first = limiter.tryAcquire("user", WINDOW_START);
+        boolean second = limiter.tryAcquire("user", WINDOW_START + 1000);
+        boolean third = limiter.tryAcquire("user", WINDOW_START + 2000);
+        boolean otherKey = limiter.tryAcquire("other", WINDOW_START + 2000);
+
+        //Assert
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(otherKey).isTrue();
+    }
+
+    @Test
+    void tryAcquire_weighPreviousWindowByItsOverlap() {
+        //Arrange
+        limiter.tryAcquire("user", WINDOW_START + 59_000);
+        limiter.tryAcquire("user", WINDOW_START + 59_000);
+
+        //Act
+        boolean firstRightAfter = limiter.tryAcquire("user", WINDOW_START + 61_000);
+        boolean secondRightAfter = limiter.tryAcquire("user", WINDOW_START + 61_000);
+        boolean later = limiter.tryAcquire("user", WINDOW_START + 115_000);
+
+        //Assert
+        assertThat(firstRightAfter).isTrue();
+        assertThat(secondRightAfter).isFalse();
+        assertThat(later).isTrue();
+    }
+
+    @Test
+    void evictExpired_dropKeysWithoutAttemptsInTheWindow() {
+        //Arrange
+        limiter.tryAcquire("old", WINDOW_START);
+        limiter.tryAcquire("recent", WINDOW_START + 120_000);
+        long sizeBefore = limiter.estimatedSizeInBytes();
+
+        //Act
+        limiter.evictExpired(WINDOW_START + 130_000);
+
+        //Assert
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.estimatedSizeInBytes()).isPositive()
+                                                  .isLessThan(sizeBefore);
+    }
+}